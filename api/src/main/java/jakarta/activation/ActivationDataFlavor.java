@@ -1,5 +1,6 @@
 /*
  * Copyright (c) 1997, 2023 Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Distribution License v. 1.0, which is available at
@@ -33,6 +34,7 @@ public class ActivationDataFlavor {
 
     private String mimeType = null;
     private MimeType mimeObject = null;
+    private boolean mimeObjectInvalid = false;    // mimeType didn't parse
     private String humanPresentableName = null;
     private Class<?> representationClass = null;
 
@@ -224,17 +226,36 @@ public class ActivationDataFlavor {
      * @return true if the same MIME type
      */
     public boolean isMimeTypeEqual(String mimeType) {
-        MimeType mt = null;
         try {
-            if (mimeObject == null)
-                mimeObject = new MimeType(this.mimeType);
-            mt = new MimeType(mimeType);
+            MimeType mt = getParsedMimeType();
+            if (mt == null)
+                throw new MimeTypeParseException();
+            return mt.match(mimeType);
         } catch (MimeTypeParseException e) {
             // something didn't parse, do a crude comparison
             return this.mimeType.equalsIgnoreCase(mimeType);
         }
+    }
 
-        return mimeObject.match(mt);
+    /**
+     * Return the parsed form of the MIME type of this flavor, or null
+     * if it can't be parsed.  It's parsed only once; the MimeType is
+     * immutable and may be shared.
+     * Used by the DataHandler class to index its flavors.
+     */
+    MimeType getParsedMimeType() {
+        MimeType mt = mimeObject;
+        if (mt == null && !mimeObjectInvalid) {
+            try {
+                if (mimeType != null)
+                    mimeObject = mt = MimeType.valueOf(mimeType);
+                else
+                    mimeObjectInvalid = true;
+            } catch (MimeTypeParseException e) {
+                mimeObjectInvalid = true;
+            }
+        }
+        return mt;
     }
 
     /**
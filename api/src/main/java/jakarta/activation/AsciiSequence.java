@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jakarta.activation;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * A CharSequence view of a region of bytes holding US-ASCII text,
+ * such as a MIME header.  Each byte is one character; bytes outside
+ * US-ASCII are mapped as ISO-8859-1.  Only the strings that are
+ * asked for are decoded, the region as a whole never is.
+ * <p>
+ * The bytes are not copied, so the view is only valid while the
+ * caller leaves them alone.
+ */
+final class AsciiSequence implements CharSequence {
+    private final byte[] bytes;        // the array, if any
+    private final ByteBuffer buffer;   // otherwise the buffer
+    private final int offset;
+    private final int length;
+
+    /**
+     * View <code>length</code> bytes of the array starting at
+     * <code>offset</code>.
+     */
+    AsciiSequence(byte[] bytes, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        this.bytes = bytes;
+        this.buffer = null;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * View <code>length</code> bytes of the buffer starting at the
+     * absolute index <code>offset</code>.  The buffer's position
+     * and limit are not used or changed.
+     */
+    AsciiSequence(ByteBuffer buffer, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, buffer.limit());
+        if (buffer.hasArray()) {
+            this.bytes = buffer.array();
+            this.buffer = null;
+            this.offset = buffer.arrayOffset() + offset;
+        } else {
+            this.bytes = null;
+            this.buffer = buffer;
+            this.offset = offset;
+        }
+        this.length = length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        Objects.checkIndex(index, length);
+        byte b = bytes != null ? bytes[offset + index] :
+                buffer.get(offset + index);
+        return (char) (b & 0xff);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        Objects.checkFromToIndex(start, end, length);
+        return bytes != null ?
+                new AsciiSequence(bytes, offset + start, end - start) :
+                new AsciiSequence(buffer, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return substring(0, length);
+    }
+
+    /**
+     * Decode the characters from start to end into a String.
+     */
+    String substring(int start, int end) {
+        Objects.checkFromToIndex(start, end, length);
+        if (bytes != null)
+            return new String(bytes, offset + start, end - start,
+                    StandardCharsets.ISO_8859_1);
+        byte[] b = new byte[end - start];
+        for (int i = 0; i < b.length; i++)
+            b[i] = buffer.get(offset + start + i);
+        return new String(b, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jakarta.activation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * An InputStream that reads the remaining bytes of a ByteBuffer.
+ * The stream reads from its own duplicate of the buffer, so the
+ * position of the buffer that was passed in is not changed.
+ */
+final class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer buf;
+    private int mark;
+
+    ByteBufferInputStream(ByteBuffer buf) {
+        this.buf = buf.duplicate();
+        this.mark = this.buf.position();
+    }
+
+    @Override
+    public int read() {
+        return buf.hasRemaining() ? buf.get() & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (len == 0)
+            return 0;
+        int n = Math.min(len, buf.remaining());
+        if (n == 0)
+            return -1;
+        buf.get(b, off, n);
+        return n;
+    }
+
+    @Override
+    public long skip(long n) {
+        int k = (int) Math.max(0, Math.min(n, buf.remaining()));
+        buf.position(buf.position() + k);
+        return k;
+    }
+
+    @Override
+    public int available() {
+        return buf.remaining();
+    }
+
+    @Override
+    public long transferTo(OutputStream out) throws IOException {
+        int n = buf.remaining();
+        if (buf.hasArray()) {
+            out.write(buf.array(), buf.arrayOffset() + buf.position(), n);
+            buf.position(buf.limit());
+        } else {
+            byte[] b = new byte[Math.min(n, 8192)];
+            while (buf.hasRemaining()) {
+                int k = Math.min(b.length, buf.remaining());
+                buf.get(b, 0, k);
+                out.write(b, 0, k);
+            }
+        }
+        return n;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+        mark = buf.position();
+    }
+
+    @Override
+    public synchronized void reset() {
+        buf.position(mark);
+    }
+}
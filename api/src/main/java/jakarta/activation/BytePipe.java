@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jakarta.activation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Objects;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A pipe between one thread writing bytes and one thread reading
+ * them, used by <code>DataHandler.getInputStream</code> in place of
+ * PipedInputStream and PipedOutputStream.
+ * <p>
+ * The bytes go through a ring buffer.  Each side only ever advances
+ * its own position in the buffer, so no locks are needed; a thread
+ * that has to wait for the other side parks, and is unparked when
+ * there is something to read or room to write.  Reads and writes copy
+ * as many bytes as they can at once, and <code>transferTo</code>
+ * writes straight from the buffer.
+ * <p>
+ * The writer can fail the pipe with an exception, which the reader
+ * gets, wrapped in an IOException, once it has read all the bytes
+ * written before that.
+ */
+final class BytePipe {
+    private final byte[] buffer;
+    private final int mask;                 // buffer.length - 1
+
+    // the number of bytes read and written so far; each is only
+    // changed by its own side
+    private volatile long readPos = 0;
+    private volatile long writePos = 0;
+
+    private volatile boolean writerClosed = false;
+    private volatile boolean readerClosed = false;
+    private volatile Exception exception = null;
+
+    // the thread parked waiting for the other side, if any
+    private volatile Thread waitingReader = null;
+    private volatile Thread waitingWriter = null;
+
+    private final Source source = new Source();
+    private final Sink sink = new Sink();
+
+    /**
+     * Create a pipe that buffers up to about <code>capacity</code>
+     * bytes; the capacity is rounded up to a power of two.
+     */
+    BytePipe(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1;
+        if (size <= 0)
+            size = 1 << 30;
+        buffer = new byte[size];
+        mask = size - 1;
+    }
+
+    /**
+     * The end of the pipe to read from.
+     */
+    InputStream getInputStream() {
+        return source;
+    }
+
+    /**
+     * The end of the pipe to write to.
+     */
+    OutputStream getOutputStream() {
+        return sink;
+    }
+
+    /**
+     * Close the writing end because the writer failed, so the reader
+     * gets the exception instead of end of file.
+     */
+    void fail(Exception e) {
+        exception = e;
+        sink.close();
+    }
+
+    /**
+     * Park the current thread until woken, failing if it's interrupted.
+     */
+    private void park() throws InterruptedIOException {
+        LockSupport.park(this);
+        if (Thread.interrupted())
+            throw new InterruptedIOException();
+    }
+
+    private static void unpark(Thread t) {
+        if (t != null)
+            LockSupport.unpark(t);
+    }
+
+    /**
+     * The reading end.  Only one thread may read at a time.
+     */
+    private final class Source extends InputStream {
+        private final byte[] single = new byte[1];
+
+        /**
+         * Wait for bytes to read, returning how many there are,
+         * or -1 at end of file.
+         */
+        private int await() throws IOException {
+            for (;;) {
+                if (readerClosed)
+                    throw new IOException("Pipe closed");
+                int n = (int) (writePos - readPos);
+                if (n > 0)
+                    return n;
+                if (writerClosed) {
+                    // writePos doesn't change after writerClosed is set
+                    if (writePos != readPos)
+                        continue;
+                    Exception e = exception;
+                    if (e instanceof IOException)
+                        throw new IOException(e.getMessage(), e);
+                    else if (e != null)
+                        throw new IOException("writing the data failed", e);
+                    return -1;
+                }
+                waitingReader = Thread.currentThread();
+                try {
+                    // check again, the writer may not have seen us
+                    if (writePos == readPos && !writerClosed)
+                        park();
+                } finally {
+                    waitingReader = null;
+                }
+            }
+        }
+
+        /**
+         * Mark n more bytes as read, making room for the writer.
+         */
+        private void consumed(int n) {
+            readPos += n;
+            unpark(waitingWriter);
+        }
+
+        @Override
+        public int read() throws IOException {
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, b.length);
+            if (len == 0)
+                return 0;
+            int avail = await();
+            if (avail < 0)
+                return -1;
+            int n = Math.min(avail, len);
+            int pos = (int) readPos & mask;
+            int first = Math.min(n, buffer.length - pos);
+            System.arraycopy(buffer, pos, b, off, first);
+            if (first < n)
+                System.arraycopy(buffer, 0, b, off + first, n - first);
+            consumed(n);
+            return n;
+        }
+
+        @Override
+        public long transferTo(OutputStream out) throws IOException {
+            Objects.requireNonNull(out, "out");
+            long total = 0;
+            int avail;
+            while ((avail = await()) > 0) {
+                int pos = (int) readPos & mask;
+                int n = Math.min(avail, buffer.length - pos);
+                out.write(buffer, pos, n);
+                consumed(n);
+                total += n;
+            }
+            return total;
+        }
+
+        @Override
+        public int available() throws IOException {
+            if (readerClosed)
+                throw new IOException("Pipe closed");
+            return (int) (writePos - readPos);
+        }
+
+        @Override
+        public void close() {
+            readerClosed = true;
+            unpark(waitingWriter);
+        }
+    }
+
+    /**
+     * The writing end.  Only one thread may write at a time.
+     */
+    private final class Sink extends OutputStream {
+        private final byte[] single = new byte[1];
+
+        @Override
+        public void write(int b) throws IOException {
+            single[0] = (byte) b;
+            write(single, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, b.length);
+            if (writerClosed)
+                throw new IOException("Pipe closed");
+            while (len > 0) {
+                if (readerClosed)
+                    throw new IOException("Read end closed");
+                int free = buffer.length - (int) (writePos - readPos);
+                if (free == 0) {
+                    waitingWriter = Thread.currentThread();
+                    try {
+                        // check again, the reader may not have seen us
+                        if (writePos - readPos == buffer.length &&
+                                !readerClosed)
+                            park();
+                    } finally {
+                        waitingWriter = null;
+                    }
+                    continue;
+                }
+                int n = Math.min(free, len);
+                int pos = (int) writePos & mask;
+                int first = Math.min(n, buffer.length - pos);
+                System.arraycopy(b, off, buffer, pos, first);
+                if (first < n)
+                    System.arraycopy(b, off + first, buffer, 0, n - first);
+                writePos += n;
+                unpark(waitingReader);
+                off += n;
+                len -= n;
+            }
+        }
+
+        @Override
+        public void close() {
+            writerClosed = true;
+            unpark(waitingReader);
+        }
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jakarta.activation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The CachedDataSource class wraps another DataSource and keeps a copy
+ * of its data, so that the data can be read any number of times while
+ * the other DataSource is only read once.  This is useful when the data
+ * comes from the network, as with a URLDataSource, or is expensive to
+ * produce.
+ * <p>
+ * The data is read, all of it, the first time <code>getInputStream</code>
+ * is called.  Data no larger than the threshold is kept in memory.  Larger
+ * data is written to a temporary file, which is then mapped into memory
+ * and removed; the data stays readable until this CachedDataSource is
+ * no longer used.  If reading the data fails, nothing is kept and the
+ * next call to <code>getInputStream</code> tries again.
+ * <p>
+ * The content type and name are those of the wrapped DataSource.
+ * Writing to the OutputStream from <code>getOutputStream</code> writes
+ * to the wrapped DataSource and discards the copy.
+ *
+ * @see jakarta.activation.DataSource
+ * @since 2.2
+ */
+public class CachedDataSource implements DataSource, DataSourceMetadata {
+    /**
+     * The default threshold, in bytes, above which the data is kept in
+     * a file rather than in memory.
+     */
+    public static final int DEFAULT_THRESHOLD = 1024 * 1024;
+
+    // the largest part of the file mapped at once
+    private static final long MAX_MAPPING = 1L << 30;
+    // the most bytes kept in memory, leaving room for the last read
+    // before the threshold is checked, and below the largest array
+    private static final int MAX_THRESHOLD = Integer.MAX_VALUE - 1024 * 1024;
+
+    private final DataSource ds;
+    private final int threshold;
+
+    // a byte[] or a ByteBuffer[], once the data has been read
+    private volatile Object content = null;
+
+    /**
+     * Create a CachedDataSource for the DataSource, keeping up to
+     * <code>DEFAULT_THRESHOLD</code> bytes in memory.
+     *
+     * @param ds the DataSource
+     */
+    public CachedDataSource(DataSource ds) {
+        this(ds, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Create a CachedDataSource for the DataSource, keeping up to
+     * <code>threshold</code> bytes in memory.  Data too large for a
+     * byte array is kept in a file even if the threshold is larger,
+     * so <code>Integer.MAX_VALUE</code> keeps as much data in memory
+     * as possible.
+     *
+     * @param ds        the DataSource
+     * @param threshold the most bytes to keep in memory
+     * @exception IllegalArgumentException if threshold is negative
+     */
+    public CachedDataSource(DataSource ds, int threshold) {
+        if (threshold < 0)
+            throw new IllegalArgumentException(
+                    "negative threshold: " + threshold);
+        this.ds = Objects.requireNonNull(ds, "ds");
+        this.threshold = Math.min(threshold, MAX_THRESHOLD);
+    }
+
+    /**
+     * Return the DataSource whose data this CachedDataSource keeps.
+     *
+     * @return the DataSource
+     */
+    public DataSource getDataSource() {
+        return ds;
+    }
+
+    /**
+     * Return an InputStream for the data, reading the data from the
+     * wrapped DataSource if it hasn't been read yet.
+     *
+     * @return an InputStream
+     * @exception IOException if the data can't be read
+     */
+    @Override
+    public InputStream getInputStream() throws IOException {
+        Object c = load();
+        if (c instanceof byte[])
+            return new ByteArrayInputStream((byte[]) c);
+
+        ByteBuffer[] bufs = (ByteBuffer[]) c;
+        if (bufs.length == 1)
+            return new ByteBufferInputStream(bufs[0]);
+        List<InputStream> streams = new ArrayList<>(bufs.length);
+        for (ByteBuffer bb : bufs)
+            streams.add(new ByteBufferInputStream(bb));
+        return new SequenceInputStream(Collections.enumeration(streams));
+    }
+
+    /**
+     * Return an OutputStream for the wrapped DataSource.  The data kept
+     * so far is discarded, and is read again the next time
+     * <code>getInputStream</code> is called.
+     *
+     * @return an OutputStream
+     * @exception IOException if the wrapped DataSource fails
+     */
+    @Override
+    public OutputStream getOutputStream() throws IOException {
+        OutputStream os = ds.getOutputStream();
+        synchronized (this) {
+            content = null;
+        }
+        return os;
+    }
+
+    /**
+     * Return the content type of the wrapped DataSource.
+     *
+     * @return the MIME type
+     */
+    @Override
+    public String getContentType() {
+        return ds.getContentType();
+    }
+
+    /**
+     * Return the name of the wrapped DataSource.
+     *
+     * @return the name
+     */
+    @Override
+    public String getName() {
+        return ds.getName();
+    }
+
+    /**
+     * Return the size of the data if it has been read, otherwise the
+     * size the wrapped DataSource reports, if it implements
+     * DataSourceMetadata, or -1.
+     *
+     * @return the size of the data, or -1
+     */
+    @Override
+    public long getSize() {
+        Object c = content;
+        if (c instanceof byte[])
+            return ((byte[]) c).length;
+        if (c != null) {
+            long size = 0;
+            for (ByteBuffer bb : (ByteBuffer[]) c)
+                size += bb.capacity();
+            return size;
+        }
+        return ds instanceof DataSourceMetadata ?
+                ((DataSourceMetadata) ds).getSize() : -1;
+    }
+
+    /**
+     * Return the last modified time reported by the wrapped DataSource,
+     * if it implements DataSourceMetadata, or -1.
+     *
+     * @return the last modified time, or -1
+     */
+    @Override
+    public long getLastModified() {
+        return ds instanceof DataSourceMetadata ?
+                ((DataSourceMetadata) ds).getLastModified() : -1;
+    }
+
+    /**
+     * Return the entity tag reported by the wrapped DataSource,
+     * if it implements DataSourceMetadata, or null.
+     *
+     * @return the entity tag, or null
+     */
+    @Override
+    public String getEntityTag() {
+        return ds instanceof DataSourceMetadata ?
+                ((DataSourceMetadata) ds).getEntityTag() : null;
+    }
+
+    /**
+     * Return the data, reading it if it hasn't been read yet.
+     */
+    private Object load() throws IOException {
+        Object c = content;
+        if (c != null)
+            return c;
+        synchronized (this) {
+            if (content == null)
+                content = read();
+            return content;
+        }
+    }
+
+    /**
+     * Read all the data from the wrapped DataSource, into memory until
+     * there's more than the threshold, then into a mapped file.
+     */
+    private Object read() throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(
+                threshold < 8 * 1024 ? threshold + 1 : 8 * 1024);
+        try (InputStream is = ds.getInputStream()) {
+            byte[] data = CopyBuffer.get(-1);
+            try {
+                int bytes_read;
+                while ((bytes_read = is.read(data)) > 0) {
+                    bos.write(data, 0, bytes_read);
+                    if (bos.size() > threshold)
+                        return spill(bos, is, data);
+                }
+            } finally {
+                CopyBuffer.release(data);
+            }
+        }
+        return bos.toByteArray();
+    }
+
+    /**
+     * Write what's been read so far, and the rest of the data, to a
+     * temporary file, and map the file into memory.
+     */
+    private static ByteBuffer[] spill(ByteArrayOutputStream bos,
+                                      InputStream is, byte[] data)
+            throws IOException {
+        Path tmp = Files.createTempFile("activation", ".tmp");
+        try {
+            try (OutputStream os = Files.newOutputStream(tmp)) {
+                bos.writeTo(os);
+                bos.reset();
+                int bytes_read;
+                while ((bytes_read = is.read(data)) > 0)
+                    os.write(data, 0, bytes_read);
+            }
+
+            try (FileChannel fc = FileChannel.open(tmp,
+                    StandardOpenOption.READ)) {
+                long size = fc.size();
+                ByteBuffer[] bufs =
+                        new ByteBuffer[(int) ((size - 1) / MAX_MAPPING + 1)];
+                for (int i = 0; i < bufs.length; i++) {
+                    long pos = i * MAX_MAPPING;
+                    bufs[i] = fc.map(FileChannel.MapMode.READ_ONLY, pos,
+                            Math.min(MAX_MAPPING, size - pos));
+                }
+                return bufs;
+            }
+        } finally {
+            // the mappings stay valid without the file, where the
+            // file system allows removing it while mapped
+            try {
+                Files.delete(tmp);
+            } catch (IOException e) {
+                if (LogSupport.isLoggable())
+                    LogSupport.log("CachedDataSource: can't delete " + tmp,
+                            e);
+                tmp.toFile().deleteOnExit();
+            }
+        }
+    }
+}
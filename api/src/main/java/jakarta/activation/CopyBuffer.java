@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jakarta.activation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Buffers for copying streams.  The size of a buffer is chosen from
+ * the number of bytes to copy, when that's known, and each thread
+ * keeps the last buffer it used to use again.
+ * <p>
+ * The buffers are kept per thread, so a thread that only copies once,
+ * such as the virtual thread that <code>DataHandler.getInputStream</code>
+ * starts for each stream by default, gets no buffer to use again.
+ */
+final class CopyBuffer {
+    private static final int MIN_SIZE = 512;
+    private static final int DEFAULT_SIZE = 8 * 1024;
+    // no larger, so that every buffer can be kept
+    private static final int MAX_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<byte[]> cached = new ThreadLocal<>();
+
+    /*
+     * Which InputStream classes override transferTo, presumably with
+     * something better than the read and write loop in InputStream.
+     */
+    private static final ClassValue<Boolean> hasTransferTo =
+            new ClassValue<Boolean>() {
+                @Override
+                protected Boolean computeValue(Class<?> c) {
+                    try {
+                        return c.getMethod("transferTo", OutputStream.class)
+                                .getDeclaringClass() != InputStream.class;
+                    } catch (NoSuchMethodException | SecurityException e) {
+                        return Boolean.FALSE;
+                    }
+                }
+            };
+
+    private CopyBuffer() {
+        // private constructor, can't create an instance
+    }
+
+    /**
+     * Return a buffer for copying <code>size</code> bytes, or an
+     * unknown number of bytes if size is negative.  The buffer
+     * should be given back with <code>release</code> when the copy
+     * is done.  Until then no one else uses it.
+     */
+    static byte[] get(long size) {
+        int len = size < 0 ? DEFAULT_SIZE :
+                (int) Math.max(MIN_SIZE, Math.min(size, MAX_SIZE));
+        byte[] b = cached.get();
+        if (b != null && b.length >= len &&
+                (b.length <= 2 * len || b.length <= DEFAULT_SIZE)) {
+            cached.set(null);     // in case of a nested copy
+            return b;
+        }
+        return new byte[len];
+    }
+
+    /**
+     * Give back a buffer from <code>get</code>, to be used again.
+     */
+    static void release(byte[] b) {
+        cached.set(b);
+    }
+
+    /**
+     * Copy everything from the InputStream to the OutputStream,
+     * stopping early if the InputStream reads no bytes.
+     * <code>size</code> is the number of bytes expected, or negative
+     * if it's not known.
+     */
+    static void copy(InputStream is, OutputStream os, long size)
+            throws IOException {
+        if (hasTransferTo.get(is.getClass())) {
+            is.transferTo(os);
+            return;
+        }
+        byte[] data = get(size);
+        try {
+            int bytes_read;
+            while ((bytes_read = is.read(data)) > 0) {
+                os.write(data, 0, bytes_read);
+            }
+        } finally {
+            release(data);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 /*
  * Copyright (c) 1997, 2023 Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Distribution License v. 1.0, which is available at
@@ -10,14 +11,36 @@
 
 package jakarta.activation;
 
+import java.io.ByteArrayInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
-import java.io.PipedInputStream;
-import java.io.PipedOutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * The DataHandler class provides a consistent interface to data
@@ -61,22 +84,73 @@ public class DataHandler {
     private String objectMimeType = null;
 
     // Keep track of the CommandMap
-    private CommandMap currentCommandMap = null;
+    private volatile CommandMap currentCommandMap = null;
 
     // our transfer flavors
     private static final ActivationDataFlavor[] emptyFlavors =
             new ActivationDataFlavor[0];
-    private ActivationDataFlavor[] transferFlavors = emptyFlavors;
 
-    // our DataContentHandler
-    private DataContentHandler dataContentHandler = null;
-    private DataContentHandler factoryDCH = null;
+    /*
+     * Our DataContentHandler, and its transfer flavors once they're
+     * needed.  The state is replaced as a whole, never changed, so it's
+     * read without locking.  If several threads find a DataContentHandler
+     * at the same time, the first one to publish its state wins and the
+     * others use that state too.
+     */
+    private volatile HandlerState handlerState = null;
+    private static final VarHandle HANDLER_STATE;
+
+    static {
+        try {
+            HANDLER_STATE = MethodHandles.lookup().findVarHandle(
+                    DataHandler.class, "handlerState", HandlerState.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
 
     // our DataContentHandlerFactory
-    private static DataContentHandlerFactory factory = null;
-    private DataContentHandlerFactory oldFactory = null;
+    private static volatile DataContentHandlerFactory factory = null;
+
+    // runs the threads that write the data for getInputStream
+    private static volatile Executor streamExecutor = null;
+    private static volatile Executor defaultStreamExecutor = null;
+
+    // the most data getInputStream writes into memory instead of a pipe
+    private static final int bufferSize =
+            Integer.getInteger("jakarta.activation.datahandler.bufferSize",
+                    0);
+
+    // size of the buffer between the writer and getInputStream's caller
+    private static final int pipeSize =
+            Integer.getInteger("jakarta.activation.datahandler.pipeSize",
+                    64 * 1024);
     // the short representation of the ContentType (sans params)
-    private String shortType = null;
+    private volatile String shortType = null;
+
+    /*
+     * The DataContentHandler, wrapped in one of our own, for the
+     * factory and CommandMap it was found with.  If either of them
+     * changes, a new HandlerState is needed.
+     */
+    private static final class HandlerState {
+        final DataContentHandlerFactory factory;
+        final CommandMap commandMap;        // null for the default
+        final DataContentHandler factoryDCH;    // from the factory, if any
+        final DataContentHandler dch;
+
+        // found when first needed; racy, but any thread finds the same
+        volatile ActivationDataFlavor[] transferFlavors;
+        volatile FlavorIndex flavorIndex;
+
+        HandlerState(DataContentHandlerFactory factory, CommandMap commandMap,
+                     DataContentHandler factoryDCH, DataContentHandler dch) {
+            this.factory = factory;
+            this.commandMap = commandMap;
+            this.factoryDCH = factoryDCH;
+            this.dch = dch;
+        }
+    }
 
     /**
      * Create a <code>DataHandler</code> instance referencing the
@@ -88,7 +162,6 @@ public class DataHandler {
     public DataHandler(DataSource ds) {
         // save a reference to the incoming DS
         dataSource = ds;
-        oldFactory = factory; // keep track of the factory
     }
 
     /**
@@ -103,7 +176,6 @@ public class DataHandler {
     public DataHandler(Object obj, String mimeType) {
         object = obj;
         objectMimeType = mimeType;
-        oldFactory = factory; // keep track of the factory
     }
 
     /**
@@ -115,13 +187,12 @@ public class DataHandler {
      */
     public DataHandler(URL url) {
         dataSource = new URLDataSource(url);
-        oldFactory = factory; // keep track of the factory
     }
 
     /**
      * Return the CommandMap for this instance of DataHandler.
      */
-    private synchronized CommandMap getCommandMap() {
+    private CommandMap getCommandMap() {
         if (currentCommandMap != null)
             return currentCommandMap;
         else
@@ -167,6 +238,38 @@ public class DataHandler {
             return null;
     }
 
+    /**
+     * Return what's known about the data without reading it, such as
+     * its size, or null if nothing is.
+     * <p>
+     * For DataHandlers instantiated with a DataSource that implements
+     * DataSourceMetadata, the DataSource is returned.  For DataHandlers
+     * instantiated with a <code>byte[]</code> or <code>ByteBuffer</code>
+     * for which there's no DataContentHandler, the size is known.
+     *
+     * @return the DataSourceMetadata, or null
+     * @see jakarta.activation.DataSourceMetadata
+     * @since 2.2
+     */
+    public DataSourceMetadata getMetadata() {
+        if (dataSource != null)
+            return dataSource instanceof DataSourceMetadata ?
+                    (DataSourceMetadata) dataSource : null;
+
+        final long size;
+        if (object instanceof byte[])
+            size = ((byte[]) object).length;
+        else if (object instanceof ByteBuffer)
+            size = ((ByteBuffer) object).remaining();
+        else
+            return null;
+        DataContentHandler dch = getDataContentHandler();
+        if (dch instanceof ObjectDataContentHandler &&
+                ((ObjectDataContentHandler) dch).getDCH() != null)
+            return null;    // the DCH decides what the bytes are
+        return () -> size;
+    }
+
     /**
      * Return the MIME type of this object as retrieved from
      * the source object. Note that this is the <i>full</i>
@@ -192,17 +295,39 @@ public class DataHandler {
      * first attempts to find a DataContentHandler for the Object. If
      * the DataHandler can not find a DataContentHandler for this MIME
      * type, it throws an UnsupportedDataTypeException.  If it is
-     * successful, it creates a pipe and a thread.  The thread uses the
+     * successful, it creates a pipe, and a task that uses the
      * DataContentHandler's <code>writeTo</code> method to write the
      * stream data into one end of the pipe.  The other end of the pipe
-     * is returned to the caller.  Because a thread is created to copy
-     * the data, IOExceptions that may occur during the copy can not be
-     * propagated back to the caller. The result is an empty stream.
+     * is returned to the caller.  The pipe buffers up to 64 KB, or the
+     * number of bytes given by the System property
+     * <code>jakarta.activation.datahandler.pipeSize</code>.
+     * The task is run by the Executor set
+     * with <code>setInputStreamExecutor</code>; by default each task
+     * runs in a new virtual thread if the JVM supports them, or else
+     * in a new thread.  If the <code>writeTo</code> method fails, the
+     * caller gets an IOException when it reaches the end of the data
+     * that was written.
+     * <p>
+     * If the System property
+     * <code>jakarta.activation.datahandler.bufferSize</code> is set to
+     * a positive number, the DataHandler first calls <code>writeTo</code>
+     * itself, and if it writes no more than that many bytes, returns a
+     * stream that reads them from memory.  Otherwise the data is written
+     * again, through a pipe.
+     * <p>
+     * If there is no DataContentHandler for the MIME type, but the
+     * Object is a <code>byte[]</code>, a <code>ByteBuffer</code>, or a
+     * <code>String</code> or other <code>CharSequence</code>, a stream
+     * that reads its bytes directly is returned.  The characters of a
+     * <code>CharSequence</code> are encoded with the charset named by
+     * the <code>charset</code> parameter of the MIME type, or with the
+     * platform default charset if there is none.
      *
      * @throws IOException if an I/O error occurs
      * @return the InputStream representing this data
      * @see jakarta.activation.DataContentHandler#writeTo
      * @see jakarta.activation.UnsupportedDataTypeException
+     * @see #setInputStreamExecutor
      */
     public InputStream getInputStream() throws IOException {
         InputStream ins = null;
@@ -217,49 +342,171 @@ public class DataHandler {
                         "no DCH for MIME type " + getBaseType());
 
             if (dch instanceof ObjectDataContentHandler) {
-                if (((ObjectDataContentHandler) dch).getDCH() == null)
-                    throw new UnsupportedDataTypeException(
-                            "no object DCH for MIME type " + getBaseType());
+                ObjectDataContentHandler odch = (ObjectDataContentHandler) dch;
+                if (odch.getDCH() == null) {
+                    // the types we know how to write can be read directly
+                    ins = odch.getInputStream();
+                    if (ins == null)
+                        throw new UnsupportedDataTypeException(
+                                "no object DCH for MIME type " + getBaseType());
+                    return ins;
+                }
             }
             // there is none but the default^^^^^^^^^^^^^^^^
             final DataContentHandler fdch = dch;
 
+            // small data is written here, rather than through a pipe
+            if (bufferSize > 0) {
+                ins = writeToBuffer(fdch);
+                if (ins != null)
+                    return ins;
+            }
+
             // from bill s.
             // ce n'est pas une pipe!
             //
-            // NOTE: This block of code needs to throw exceptions, but
-            // can't because it is in another thread!!! ARG!
+            // Exceptions thrown by writeTo in the other thread are
+            // handed to the reader through the pipe.
             //
-            final PipedOutputStream pos = new PipedOutputStream();
-            PipedInputStream pin = new PipedInputStream(pos);
-            new Thread(
-                    new Runnable() {
-                        public void run() {
-                            try {
-                                fdch.writeTo(object, objectMimeType, pos);
-                            } catch (IOException e) {
-
-                            } finally {
+            final BytePipe pipe = new BytePipe(pipeSize);
+            try {
+                getInputStreamExecutor().execute(
+                        new Runnable() {
+                            public void run() {
+                                OutputStream pos = pipe.getOutputStream();
                                 try {
-                                    pos.close();
-                                } catch (IOException ie) {
+                                    fdch.writeTo(object, objectMimeType, pos);
+                                } catch (IOException | RuntimeException e) {
+                                    pipe.fail(e);
+                                } finally {
+                                    try {
+                                        pos.close();
+                                    } catch (IOException ie) {
+                                    }
                                 }
                             }
-                        }
-                    },
-                    "DataHandler.getInputStream").start();
-            ins = pin;
+                        });
+            } catch (RejectedExecutionException ex) {
+                throw new IOException("can't start writing " +
+                        getBaseType() + " data", ex);
+            }
+            ins = pipe.getInputStream();
         }
 
         return ins;
     }
 
+    /**
+     * Get an InputStream for <code>length</code> bytes of the data,
+     * starting at <code>offset</code>, or for all the data from
+     * <code>offset</code> on if length is -1.  The data is the same as
+     * returned by <code>getInputStream()</code>.  The InputStream
+     * returns fewer bytes if the data ends first, and none if the data
+     * ends before the offset.
+     * <p>
+     * If the DataHandler was created with a RangeDataSource, such as a
+     * FileDataSource, its <code>getInputStream(offset, length)</code>
+     * method is called.  Otherwise the bytes before the offset are
+     * skipped.
+     *
+     * @param offset the offset of the first byte to read
+     * @param length the number of bytes to read, or -1 for the rest
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalArgumentException if offset is negative, or
+     *                                  length is less than -1
+     * @return the InputStream
+     * @see jakarta.activation.RangeDataSource
+     * @since 2.2
+     */
+    public InputStream getInputStream(long offset, long length)
+            throws IOException {
+        RangeInputStream.checkRange(offset, length);
+        if (dataSource instanceof RangeDataSource)
+            return ((RangeDataSource) dataSource).getInputStream(offset,
+                    length);
+        return RangeInputStream.open(getInputStream(), offset, length);
+    }
+
+    /**
+     * Write the data for getInputStream into memory, returning a stream
+     * to read it, or null if there's more than bufferSize bytes of it.
+     */
+    private InputStream writeToBuffer(DataContentHandler dch)
+            throws IOException {
+        LimitedOutputStream bos = new LimitedOutputStream(bufferSize);
+        try {
+            dch.writeTo(object, objectMimeType, bos);
+        } catch (IOException | RuntimeException e) {
+            if (bos.isOverflow())
+                return null;
+            throw e;
+        }
+        return bos.isOverflow() ? null : bos.toInputStream();
+    }
+
+    /**
+     * An OutputStream that collects up to limit bytes in memory, and
+     * fails if more are written.
+     */
+    private static class LimitedOutputStream extends OutputStream {
+        private final int limit;
+        private byte[] buf;
+        private int count = 0;
+        private boolean overflow = false;
+
+        LimitedOutputStream(int limit) {
+            this.limit = limit;
+            this.buf = new byte[Math.min(limit, 8192)];
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            ensure(1);
+            buf[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, b.length);
+            ensure(len);
+            System.arraycopy(b, off, buf, count, len);
+            count += len;
+        }
+
+        /**
+         * Make room for len more bytes, if that's within the limit.
+         */
+        private void ensure(int len) throws IOException {
+            if (overflow || len > limit - count) {
+                overflow = true;
+                throw new IOException("more than " + limit + " bytes");
+            }
+            if (count + len > buf.length)
+                buf = Arrays.copyOf(buf, (int) Math.min(limit,
+                        Math.max(count + len, 2L * buf.length)));
+        }
+
+        boolean isOverflow() {
+            return overflow;
+        }
+
+        /**
+         * A stream that reads the bytes written, without copying them.
+         */
+        InputStream toInputStream() {
+            return new ByteArrayInputStream(buf, 0, count);
+        }
+    }
+
     /**
      * Write the data to an <code>OutputStream</code>.<p>
      *
      * If the DataHandler was created with a DataSource, writeTo
      * retrieves the InputStream and copies the bytes from the
-     * InputStream to the OutputStream passed in.
+     * InputStream to the OutputStream passed in.  If the DataSource is
+     * a FileDataSource and the OutputStream is a FileOutputStream, the
+     * bytes are transferred from one file channel to the other, which
+     * the operating system may do without copying them into the JVM.
      * <p>
      * If the DataHandler was created with an object, writeTo
      * retrieves the DataContentHandler for the object's type.
@@ -272,16 +519,23 @@ public class DataHandler {
     public void writeTo(OutputStream os) throws IOException {
         // for the DataSource case
         if (dataSource != null) {
+            if (os.getClass() == FileOutputStream.class) {
+                // let the channels copy it
+                FileChannel target = ((FileOutputStream) os).getChannel();
+                try (FileChannel fc = openFileChannel()) {
+                    if (fc != null) {
+                        transfer(fc, target, 0, -1);
+                        return;
+                    }
+                }
+            }
+
             InputStream is = null;
-            byte[] data = new byte[8 * 1024];
-            int bytes_read;
 
             is = dataSource.getInputStream();
 
             try {
-                while ((bytes_read = is.read(data)) > 0) {
-                    os.write(data, 0, bytes_read);
-                }
+                CopyBuffer.copy(is, os, getDataSize());
             } finally {
                 is.close();
                 is = null;
@@ -292,6 +546,235 @@ public class DataHandler {
         }
     }
 
+    /**
+     * Write <code>length</code> bytes of the data, starting at
+     * <code>offset</code>, or all the data from <code>offset</code> on
+     * if length is -1, to an OutputStream.  The bytes are those returned
+     * by <code>getInputStream(offset, length)</code>.  If the DataSource
+     * is a FileDataSource and the OutputStream is a FileOutputStream,
+     * the bytes are transferred from one file channel to the other.
+     *
+     * @param os     the OutputStream to write to
+     * @param offset the offset of the first byte to write
+     * @param length the number of bytes to write, or -1 for the rest
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalArgumentException if offset is negative, or
+     *                                  length is less than -1
+     * @see #getInputStream(long, long)
+     * @since 2.2
+     */
+    public void writeTo(OutputStream os, long offset, long length)
+            throws IOException {
+        RangeInputStream.checkRange(offset, length);
+        if (os.getClass() == FileOutputStream.class) {
+            FileChannel target = ((FileOutputStream) os).getChannel();
+            try (FileChannel fc = openFileChannel()) {
+                if (fc != null) {
+                    transfer(fc, target, offset, length);
+                    return;
+                }
+            }
+        }
+
+        try (InputStream is = getInputStream(offset, length)) {
+            CopyBuffer.copy(is, os, length);
+        }
+    }
+
+    /**
+     * Write the data to a <code>WritableByteChannel</code>.  The data
+     * is the same as written by <code>writeTo(OutputStream)</code>.
+     * The channel is not closed.
+     * <p>
+     * If the DataHandler was created with a FileDataSource, the bytes
+     * are transferred with <code>FileChannel.transferTo</code>, which
+     * the operating system may do without copying them into the JVM,
+     * for instance when the channel is a file or a socket.
+     * <p>
+     * The channel must be in blocking mode.
+     *
+     * @param channel the channel to write to
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalBlockingModeException if the channel is a
+     *                                      SelectableChannel in
+     *                                      non-blocking mode
+     * @see #writeTo(OutputStream)
+     * @since 2.2
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        checkBlocking(channel);
+        // for the DataSource case
+        if (dataSource != null) {
+            try (FileChannel fc = openFileChannel()) {
+                if (fc != null) {
+                    transfer(fc, channel, 0, -1);
+                    return;
+                }
+            }
+
+            try (InputStream is = dataSource.getInputStream()) {
+                copy(is, channel, getDataSize());
+            }
+        } else { // for the Object case
+            DataContentHandler dch = getDataContentHandler();
+            OutputStream os = Channels.newOutputStream(channel);
+            dch.writeTo(object, objectMimeType, os);
+            os.flush();
+        }
+    }
+
+    /**
+     * Write <code>length</code> bytes of the data, starting at
+     * <code>offset</code>, or all the data from <code>offset</code> on
+     * if length is -1, to a <code>WritableByteChannel</code>.  The bytes
+     * are those returned by <code>getInputStream(offset, length)</code>.
+     * If the DataHandler was created with a FileDataSource, they are
+     * transferred with <code>FileChannel.transferTo</code>.
+     * The channel is not closed, and must be in blocking mode.
+     *
+     * @param channel the channel to write to
+     * @param offset  the offset of the first byte to write
+     * @param length  the number of bytes to write, or -1 for the rest
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalArgumentException if offset is negative, or
+     *                                  length is less than -1
+     * @throws IllegalBlockingModeException if the channel is a
+     *                                      SelectableChannel in
+     *                                      non-blocking mode
+     * @see #getInputStream(long, long)
+     * @since 2.2
+     */
+    public void writeTo(WritableByteChannel channel, long offset, long length)
+            throws IOException {
+        RangeInputStream.checkRange(offset, length);
+        checkBlocking(channel);
+        try (FileChannel fc = openFileChannel()) {
+            if (fc != null) {
+                transfer(fc, channel, offset, length);
+                return;
+            }
+        }
+
+        try (InputStream is = getInputStream(offset, length)) {
+            copy(is, channel, length);
+        }
+    }
+
+    /**
+     * Make sure the channel blocks, so that every write writes
+     * something; a non-blocking channel could silently take less
+     * than all the data.
+     */
+    private static void checkBlocking(WritableByteChannel channel) {
+        if (channel instanceof SelectableChannel &&
+                !((SelectableChannel) channel).isBlocking())
+            throw new IllegalBlockingModeException();
+    }
+
+    /**
+     * Copy everything from the InputStream to the channel.
+     * <code>size</code> is the number of bytes expected, or negative
+     * if it's not known.
+     */
+    private static void copy(InputStream is, WritableByteChannel channel,
+                             long size) throws IOException {
+        byte[] data = CopyBuffer.get(size);
+        try {
+            ByteBuffer bb = ByteBuffer.wrap(data);
+            int bytes_read;
+            while ((bytes_read = is.read(data)) > 0) {
+                bb.clear().limit(bytes_read);
+                while (bb.hasRemaining()) {
+                    if (channel.write(bb) == 0)
+                        throw new IOException(
+                                "Channel accepted no bytes");
+                }
+            }
+        } finally {
+            CopyBuffer.release(data);
+        }
+    }
+
+    /**
+     * If the DataSource reads a file the usual way, return a new
+     * channel to read the file, else return null.
+     */
+    private FileChannel openFileChannel() throws IOException {
+        if (!FileDataSource.readsFile(dataSource))
+            return null;
+        try {
+            return FileChannel.open(((FileDataSource) dataSource).getPath(),
+                    StandardOpenOption.READ);
+        } catch (UnsupportedOperationException e) {
+            return null;    // not a file system that has channels
+        }
+    }
+
+    /**
+     * Return the number of bytes of data in the DataSource, if it's
+     * known, or -1.
+     */
+    private long getDataSize() {
+        // only a file's size is known without another request
+        if (dataSource instanceof FileDataSource)
+            return ((FileDataSource) dataSource).getSize();
+        return -1;
+    }
+
+    /**
+     * Transfer <code>length</code> bytes, or all of them if length is
+     * negative, from the file channel to the target channel, starting
+     * at <code>offset</code>.
+     */
+    private static void transfer(FileChannel fc, WritableByteChannel target,
+                                 long offset, long length)
+            throws IOException {
+        long pos = offset;
+        long size = fc.size();
+        if (length >= 0 && length < size - pos)
+            size = pos + length;
+        while (pos < size) {
+            long n = fc.transferTo(pos, size - pos, target);
+            if (n <= 0) {
+                if (pos >= fc.size())
+                    break;      // the file has shrunk
+                // the target took nothing, write the rest ourselves
+                copy(fc, pos, size, target);
+                return;
+            }
+            pos += n;
+        }
+    }
+
+    /**
+     * Copy the bytes of the file channel from <code>pos</code> up to
+     * <code>end</code> to the target channel, through a buffer.
+     */
+    private static void copy(FileChannel fc, long pos, long end,
+                             WritableByteChannel target) throws IOException {
+        byte[] data = CopyBuffer.get(end - pos);
+        try {
+            ByteBuffer bb = ByteBuffer.wrap(data);
+            while (pos < end) {
+                bb.clear();
+                if (end - pos < bb.capacity())
+                    bb.limit((int) (end - pos));
+                int bytes_read = fc.read(bb, pos);
+                if (bytes_read <= 0)
+                    break;      // the file has shrunk
+                bb.flip();
+                while (bb.hasRemaining()) {
+                    if (target.write(bb) == 0)
+                        throw new IOException(
+                                "Channel accepted no bytes");
+                }
+                pos += bytes_read;
+            }
+        } finally {
+            CopyBuffer.release(data);
+        }
+    }
+
     /**
      * Get an OutputStream for this DataHandler to allow overwriting
      * the underlying data.
@@ -335,34 +818,56 @@ public class DataHandler {
      * @return an array of data flavors in which this data can be transferred
      * @see jakarta.activation.DataContentHandler#getTransferDataFlavors
      */
-    public synchronized ActivationDataFlavor[] getTransferDataFlavors() {
-        if (factory != oldFactory) // if the factory has changed, clear cache
-            transferFlavors = emptyFlavors;
+    public ActivationDataFlavor[] getTransferDataFlavors() {
+        ActivationDataFlavor[] lFlavors = getFlavors(getHandlerState());
+        if (lFlavors.length == 0)
+            return emptyFlavors;    // no need to clone an empty array
+        else
+            return lFlavors.clone();
+    }
 
+    /**
+     * Return the transfer flavors, without copying them.
+     */
+    private static ActivationDataFlavor[] getFlavors(HandlerState st) {
+        ActivationDataFlavor[] lFlavors = st.transferFlavors;
         // if it's not set, set it...
-        if (transferFlavors == emptyFlavors)
-            transferFlavors = getDataContentHandler().getTransferDataFlavors();
-        if (transferFlavors == emptyFlavors)
-            return transferFlavors;    // no need to clone an empty array
-        else
-            return transferFlavors.clone();
+        if (lFlavors == null)
+            st.transferFlavors = lFlavors = st.dch.getTransferDataFlavors();
+        return lFlavors;
+    }
+
+    /**
+     * Return the index of the transfer flavors.
+     */
+    private FlavorIndex getFlavorIndex() {
+        HandlerState st = getHandlerState();
+        FlavorIndex index = st.flavorIndex;
+        if (index == null)
+            st.flavorIndex = index = new FlavorIndex(getFlavors(st));
+        return index;
     }
 
     /**
      * Returns whether the specified data flavor is supported
      * for this object.<p>
      *
-     * This method iterates through the ActivationDataFlavors returned from
-     * <code>getTransferDataFlavors</code>, comparing each with
-     * the specified flavor.
+     * This method compares each of the ActivationDataFlavors returned
+     * from <code>getTransferDataFlavors</code> with the specified flavor.
+     * The flavors are indexed by MIME type and representation class,
+     * so usually this is a single lookup.
      *
      * @param flavor the requested flavor for the data
      * @return true if the data flavor is supported
      * @see jakarta.activation.DataHandler#getTransferDataFlavors
      */
     public boolean isDataFlavorSupported(ActivationDataFlavor flavor) {
-        ActivationDataFlavor[] lFlavors = getTransferDataFlavors();
+        FlavorIndex index = getFlavorIndex();
+        if (index.canLookup(flavor))
+            return index.contains(flavor);
 
+        // compare with each flavor
+        ActivationDataFlavor[] lFlavors = index.flavors;
         for (int i = 0; i < lFlavors.length; i++) {
             if (lFlavors[i].equals(flavor))
                 return true;
@@ -421,11 +926,10 @@ public class DataHandler {
      */
     public synchronized void setCommandMap(CommandMap commandMap) {
         if (commandMap != currentCommandMap || commandMap == null) {
-            // clear cached values...
-            transferFlavors = emptyFlavors;
-            dataContentHandler = null;
-
             currentCommandMap = commandMap;
+
+            // clear cached values...
+            handlerState = null;
         }
     }
 
@@ -556,65 +1060,198 @@ public class DataHandler {
      *
      * @return the requested DataContentHandler
      */
-    private synchronized DataContentHandler getDataContentHandler() {
-
-        // make sure the factory didn't change
-        if (factory != oldFactory) {
-            oldFactory = factory;
-            factoryDCH = null;
-            dataContentHandler = null;
-            transferFlavors = emptyFlavors;
-        }
+    private DataContentHandler getDataContentHandler() {
+        return getHandlerState().dch;
+    }
 
-        if (dataContentHandler != null)
-            return dataContentHandler;
+    /**
+     * Return the current HandlerState, finding the DataContentHandler
+     * if the factory or CommandMap has changed since it was found.
+     */
+    private HandlerState getHandlerState() {
+        HandlerState st = handlerState;
+        DataContentHandlerFactory f = factory;
+        CommandMap cm = currentCommandMap;
+        if (st != null && st.factory == f && st.commandMap == cm)
+            return st;
+
+        // the factory's DCH can be used again if only the map changed
+        DataContentHandler factoryDCH =
+                st != null && st.factory == f ? st.factoryDCH : null;
+        HandlerState nst = findDataContentHandler(f, cm, factoryDCH);
+        if (HANDLER_STATE.compareAndSet(this, st, nst))
+            return nst;
+
+        // another thread got there first, use its state if it's current
+        HandlerState cur = handlerState;
+        if (cur != null && cur.factory == f && cur.commandMap == cm)
+            return cur;
+        return nst;
+    }
 
+    /**
+     * Find the DataContentHandler, using the factory and CommandMap.
+     */
+    private HandlerState findDataContentHandler(DataContentHandlerFactory f,
+            CommandMap cm, DataContentHandler factoryDCH) {
         String simpleMT = getBaseType();
 
-        if (factoryDCH == null && factory != null)
-            factoryDCH = factory.createDataContentHandler(simpleMT);
-
-        if (factoryDCH != null)
-            dataContentHandler = factoryDCH;
-
-        if (dataContentHandler == null) {
-            if (dataSource != null)
-                dataContentHandler = getCommandMap().
-                        createDataContentHandler(simpleMT, dataSource);
-            else
-                dataContentHandler = getCommandMap().
-                        createDataContentHandler(simpleMT);
+        if (factoryDCH == null && f != null)
+            factoryDCH = f.createDataContentHandler(simpleMT);
+
+        DataContentHandler dch = factoryDCH;
+        ActivationDataFlavor[] dchFlavors = null;
+
+        if (dch == null) {
+            CommandMap cmdMap = cm != null ? cm :
+                    CommandMap.getDefaultCommandMap();
+            if (resolvesHandlers.get(cmdMap.getClass())) {
+                /*
+                 * The MailcapCommandMap remembers the handler class it
+                 * found for the MIME type, and the flavors of its
+                 * instances; a new instance is created for us.
+                 */
+                ResolvedHandler rh = ((MailcapCommandMap) cmdMap)
+                        .getResolvedHandler(simpleMT);
+                dch = rh.newInstance();
+                if (dch != null)
+                    dchFlavors = rh.flavors;
+            } else if (dataSource != null) {
+                dch = cmdMap.createDataContentHandler(simpleMT, dataSource);
+            } else {
+                dch = cmdMap.createDataContentHandler(simpleMT);
+            }
         }
 
         // getDataContentHandler always uses these 'wrapper' handlers
         // to make sure it returns SOMETHING meaningful...
         if (dataSource != null)
-            dataContentHandler = new DataSourceDataContentHandler(
-                    dataContentHandler,
-                    dataSource);
+            dch = new DataSourceDataContentHandler(
+                    dch,
+                    dataSource,
+                    dchFlavors);
         else
-            dataContentHandler = new ObjectDataContentHandler(
-                    dataContentHandler,
+            dch = new ObjectDataContentHandler(
+                    dch,
                     object,
-                    objectMimeType);
-        return dataContentHandler;
+                    objectMimeType,
+                    dchFlavors);
+        return new HandlerState(f, cm, factoryDCH, dch);
     }
 
+    /*
+     * Is the CommandMap class a MailcapCommandMap that finds handlers
+     * the usual way, so that the handler class it found for a MIME type
+     * can be used again?  A subclass that overrides either of the
+     * createDataContentHandler methods might choose handlers some other
+     * way, so it is always asked.
+     */
+    private static final ClassValue<Boolean> resolvesHandlers =
+            new ClassValue<Boolean>() {
+                @Override
+                protected Boolean computeValue(Class<?> c) {
+                    if (!MailcapCommandMap.class.isAssignableFrom(c))
+                        return Boolean.FALSE;
+                    try {
+                        Class<?> byType = c.getMethod(
+                                "createDataContentHandler", String.class)
+                                .getDeclaringClass();
+                        Class<?> byDataSource = c.getMethod(
+                                "createDataContentHandler",
+                                String.class, DataSource.class)
+                                .getDeclaringClass();
+                        return byType == MailcapCommandMap.class &&
+                                byDataSource == CommandMap.class;
+                    } catch (NoSuchMethodException | SecurityException e) {
+                        return Boolean.FALSE;
+                    }
+                }
+            };
+
     /**
      * Use the MimeType class to extract the MIME type/subtype,
-     * ignoring the parameters.  The type is cached.
+     * ignoring the parameters.  The type is cached.  Content types
+     * usually have parameters unique to the data, such as a boundary
+     * or a file name, so they aren't looked up with MimeType.valueOf,
+     * and the parameters are never parsed.
      */
-    private synchronized String getBaseType() {
-        if (shortType == null) {
+    private String getBaseType() {
+        String st = shortType;
+        if (st == null) {
             String ct = getContentType();
             try {
                 MimeType mt = new MimeType(ct);
-                shortType = mt.getBaseType();
+                st = mt.getBaseType();
             } catch (MimeTypeParseException e) {
-                shortType = ct;
+                st = ct;
             }
+            shortType = st;
+        }
+        return st;
+    }
+
+    /**
+     * Sets the Executor used by <code>getInputStream</code> to run the
+     * tasks that write the data of DataHandlers instantiated with an
+     * Object.  Each task runs until all the data has been written into
+     * the pipe, or the reader closes it, so the Executor should not
+     * limit the number of tasks that run at once to fewer than the
+     * number of streams that may be open.
+     * <p>
+     * Setting the Executor to <code>null</code> restores the default,
+     * which runs each task in a new virtual thread if the JVM supports
+     * them, or else in a new thread.
+     *
+     * @param executor the Executor, or null for the default
+     * @see #getInputStream
+     * @since 2.2
+     */
+    public static synchronized void setInputStreamExecutor(
+            Executor executor) {
+        streamExecutor = executor;
+    }
+
+    /**
+     * Return the Executor to use for getInputStream.
+     * Also used by DataSourcePublisher.
+     */
+    static Executor getInputStreamExecutor() {
+        Executor executor = streamExecutor;
+        if (executor == null) {
+            executor = defaultStreamExecutor;
+            if (executor == null)
+                defaultStreamExecutor = executor = newThreadExecutor(
+                        "DataHandler.getInputStream");
         }
-        return shortType;
+        return executor;
+    }
+
+    /**
+     * Return an Executor that runs each task in a new thread with
+     * the given name, a virtual thread if they're supported.
+     */
+    private static Executor newThreadExecutor(final String name) {
+        ThreadFactory tf = null;
+        try {
+            // Thread.ofVirtual().name(name).factory(), if it's there
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            Object b = Thread.class.getMethod("ofVirtual").invoke(null);
+            b = builder.getMethod("name", String.class).invoke(b, name);
+            tf = (ThreadFactory) builder.getMethod("factory").invoke(b);
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            // no virtual threads, or not enabled
+            if (LogSupport.isLoggable())
+                LogSupport.log("DataHandler: no virtual threads", e);
+        }
+        final ThreadFactory vtf = tf;
+        return new Executor() {
+            public void execute(Runnable r) {
+                if (vtf != null)
+                    vtf.newThread(r).start();
+                else
+                    new Thread(r, name).start();
+            }
+        };
     }
 
     /**
@@ -690,6 +1327,93 @@ class DataHandlerDataSource implements DataSource {
     }
 }
 
+/*
+ * FlavorIndex
+ *
+ * An index of an array of ActivationDataFlavors, for finding whether
+ * a flavor equals any of them without comparing it with each one.
+ * The flavors are indexed by representation class, and then by MIME
+ * type, using the parsed form that each ActivationDataFlavor keeps.
+ * A flavor equals another if the representation classes are the
+ * same and the MIME types match, as with <code>MimeType.match</code>,
+ * or if either MIME type can't be parsed, the MIME type strings are
+ * equal ignoring case.
+ *
+ * Subclasses of ActivationDataFlavor may compare flavors some
+ * other way, so if any are involved the index can't be used.
+ */
+class FlavorIndex {
+    final ActivationDataFlavor[] flavors;
+    private final Map<Class<?>, Entry> entries;    // null if not usable
+
+    // the indexed flavors with one representation class
+    private static final class Entry {
+        // base types, including "<type>/*"
+        final Set<String> baseTypes = new HashSet<>();
+        // primary types
+        final Set<String> primaryTypes = new HashSet<>();
+        // primary types of the "<type>/*" MIME types
+        final Set<String> wildcardTypes = new HashSet<>();
+        // MIME types that can't be parsed
+        final List<String> unparsed = new ArrayList<>(0);
+    }
+
+    FlavorIndex(ActivationDataFlavor[] flavors) {
+        this.flavors = flavors;
+        Map<Class<?>, Entry> map = new HashMap<>();
+        for (ActivationDataFlavor f : flavors) {
+            if (f == null || f.getClass() != ActivationDataFlavor.class ||
+                    f.getMimeType() == null) {
+                map = null;
+                break;
+            }
+            Entry e = map.computeIfAbsent(f.getRepresentationClass(),
+                    c -> new Entry());
+            MimeType mt = f.getParsedMimeType();
+            if (mt == null) {
+                e.unparsed.add(f.getMimeType());
+            } else {
+                e.baseTypes.add(mt.getBaseType());
+                e.primaryTypes.add(mt.getPrimaryType());
+                if (mt.getSubType().equals("*"))
+                    e.wildcardTypes.add(mt.getPrimaryType());
+            }
+        }
+        entries = map;
+    }
+
+    /**
+     * Can the index be used to look up this flavor?
+     */
+    boolean canLookup(ActivationDataFlavor flavor) {
+        return entries != null && flavor != null &&
+                flavor.getClass() == ActivationDataFlavor.class &&
+                flavor.getMimeType() != null;
+    }
+
+    /**
+     * Does the flavor equal any of the indexed flavors?
+     */
+    boolean contains(ActivationDataFlavor flavor) {
+        Entry e = entries.get(flavor.getRepresentationClass());
+        if (e == null)
+            return false;
+        MimeType mt = flavor.getParsedMimeType();
+        if (mt == null) {
+            // only a MIME type that doesn't parse can be equal to it
+            for (String s : e.unparsed) {
+                if (s.equalsIgnoreCase(flavor.getMimeType()))
+                    return true;
+            }
+            return false;
+        }
+        if (mt.getSubType().equals("*"))
+            return e.primaryTypes.contains(mt.getPrimaryType());
+        return e.baseTypes.contains(mt.getBaseType()) ||
+                e.wildcardTypes.contains(mt.getPrimaryType());
+    }
+}
+
 /*
  * DataSourceDataContentHandler
  *
@@ -710,6 +1434,15 @@ class DataSourceDataContentHandler implements DataContentHandler {
         this.dch = dch;
     }
 
+    /**
+     * The constructor, with the flavors of the dch if they're known.
+     */
+    DataSourceDataContentHandler(DataContentHandler dch, DataSource ds,
+                                 ActivationDataFlavor[] dchFlavors) {
+        this(dch, ds);
+        this.transferFlavors = dchFlavors;
+    }
+
     /**
      * Return the ActivationDataFlavors for this
      * <code>DataContentHandler</code>.
@@ -793,6 +1526,16 @@ class ObjectDataContentHandler implements DataContentHandler {
         this.dch = dch;
     }
 
+    /**
+     * The constructor, with the flavors of the dch if they're known.
+     */
+    ObjectDataContentHandler(DataContentHandler dch, Object obj,
+                             String mimeType,
+                             ActivationDataFlavor[] dchFlavors) {
+        this(dch, obj, mimeType);
+        this.transferFlavors = dchFlavors;
+    }
+
     /**
      * Return the DataContentHandler for this object.
      * Used only by the DataHandler class.
@@ -852,12 +1595,52 @@ class ObjectDataContentHandler implements DataContentHandler {
             dch.writeTo(obj, mimeType, os);
         else if (obj instanceof byte[])
             os.write((byte[]) obj);
-        else if (obj instanceof String) {
-            OutputStreamWriter osw = new OutputStreamWriter(os, Charset.defaultCharset());
-            osw.write((String) obj);
+        else if (obj instanceof CharSequence) {
+            OutputStreamWriter osw = new OutputStreamWriter(os,
+                    getCharset(mimeType));
+            osw.append((CharSequence) obj);
             osw.flush();
-        } else
+        } else if (obj instanceof ByteBuffer)
+            new ByteBufferInputStream((ByteBuffer) obj).transferTo(os);
+        else
             throw new UnsupportedDataTypeException(
                     "no object DCH for MIME type " + this.mimeType);
     }
+
+    /**
+     * Return a stream that reads the bytes <code>writeTo</code> would
+     * write for the object, if it's one of the types handled without
+     * a DataContentHandler, or null otherwise.
+     * Used only by the DataHandler class.
+     */
+    InputStream getInputStream() {
+        if (obj instanceof byte[])
+            return new ByteArrayInputStream((byte[]) obj);
+        else if (obj instanceof String)
+            return new ByteArrayInputStream(
+                    ((String) obj).getBytes(getCharset(mimeType)));
+        else if (obj instanceof CharSequence)
+            return new ByteBufferInputStream(getCharset(mimeType)
+                    .encode(CharBuffer.wrap((CharSequence) obj)));
+        else if (obj instanceof ByteBuffer)
+            return new ByteBufferInputStream((ByteBuffer) obj);
+        else
+            return null;
+    }
+
+    /**
+     * Return the charset named by the MIME type, or the platform
+     * default charset if it names none.
+     */
+    private static Charset getCharset(String mimeType) {
+        if (mimeType != null) {
+            try {
+                return new MimeType(mimeType)
+                        .getCharset(Charset.defaultCharset());
+            } catch (MimeTypeParseException e) {
+                // fall through
+            }
+        }
+        return Charset.defaultCharset();
+    }
 }
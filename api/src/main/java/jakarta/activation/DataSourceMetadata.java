@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jakarta.activation;
+
+/**
+ * The DataSourceMetadata interface may be implemented by a DataSource
+ * that knows something about its data without reading it: its size,
+ * when it was last modified, and a tag that changes whenever the data
+ * does.  Any of these may be unknown.
+ * <p>
+ * Applications can use them, for instance, to send a Content-Length
+ * header before streaming the data, or to answer a conditional request
+ * without reading the data at all.
+ *
+ * @see jakarta.activation.DataHandler#getMetadata
+ * @since 2.2
+ */
+public interface DataSourceMetadata {
+
+    /**
+     * Return the number of bytes of data that
+     * <code>getInputStream</code> would return, or -1 if it's not known.
+     *
+     * @return the size of the data, or -1
+     */
+    long getSize();
+
+    /**
+     * Return the time the data was last modified, in milliseconds
+     * since the epoch, or -1 if it's not known.
+     *
+     * @return the last modified time, or -1
+     */
+    default long getLastModified() {
+        return -1;
+    }
+
+    /**
+     * Return a tag for the current version of the data, or null if
+     * there is none.  The tag changes whenever the data does.  It is in
+     * the form of an HTTP entity tag, a quoted string, possibly prefixed
+     * with <code>W/</code> if it's a weak tag.
+     *
+     * @return the entity tag, or null
+     */
+    default String getEntityTag() {
+        return null;
+    }
+}
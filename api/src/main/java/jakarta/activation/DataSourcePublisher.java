@@ -0,0 +1,352 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jakarta.activation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The DataSourcePublisher class publishes the data of a DataSource, or
+ * of a DataHandler, as a stream of ByteBuffers, for applications that
+ * use <code>java.util.concurrent.Flow</code> instead of blocking I/O.
+ * <p>
+ * Each Subscriber gets all of the data, from the beginning, and the
+ * data is only read as fast as the Subscriber requests it.  Each
+ * ByteBuffer belongs to the Subscriber once it has been published.
+ * <p>
+ * The data of a FileDataSource is read with an AsynchronousFileChannel,
+ * so no thread waits for it.  Other data is read from the InputStream
+ * of the DataSource, by tasks run with an Executor while there is
+ * outstanding demand.  By default the Executor is the one set with
+ * <code>DataHandler.setInputStreamExecutor</code>.
+ *
+ * @see jakarta.activation.DataHandler#setInputStreamExecutor
+ * @since 2.2
+ */
+public class DataSourcePublisher implements Flow.Publisher<ByteBuffer> {
+    private static final int CHUNK_SIZE = 32 * 1024;
+
+    private final DataSource ds;
+    private final Executor executor;
+
+    /**
+     * Create a publisher of the data of the DataSource.
+     *
+     * @param ds the DataSource
+     */
+    public DataSourcePublisher(DataSource ds) {
+        this(ds, null);
+    }
+
+    /**
+     * Create a publisher of the data of the DataHandler.  The data is
+     * what <code>DataHandler.getInputStream</code> returns.
+     *
+     * @param dh the DataHandler
+     */
+    public DataSourcePublisher(DataHandler dh) {
+        this(dh.getDataSource(), null);
+    }
+
+    /**
+     * Create a publisher of the data of the DataSource, reading its
+     * InputStream with tasks run by the given Executor.
+     *
+     * @param ds       the DataSource
+     * @param executor the Executor, or null for the default
+     */
+    public DataSourcePublisher(DataSource ds, Executor executor) {
+        this.ds = Objects.requireNonNull(ds, "ds");
+        this.executor = executor;
+    }
+
+    /**
+     * Start publishing the data to the Subscriber.
+     *
+     * @param subscriber the Subscriber
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        if (FileDataSource.readsFile(ds)) {
+            AsynchronousFileChannel ch = null;
+            try {
+                ch = AsynchronousFileChannel.open(
+                        ((FileDataSource) ds).getPath(),
+                        StandardOpenOption.READ);
+            } catch (IOException | UnsupportedOperationException e) {
+                // read the stream instead, it'll fail if it has to
+                if (LogSupport.isLoggable())
+                    LogSupport.log("DataSourcePublisher: no file channel", e);
+            }
+            if (ch != null) {
+                new FileSubscription(subscriber, ch).start();
+                return;
+            }
+        }
+        new StreamSubscription(subscriber, ds, executor != null ? executor :
+                DataHandler.getInputStreamExecutor()).start();
+    }
+
+    /**
+     * The common part of the subscriptions.  Every change of state is
+     * followed by a call to <code>signal</code>, which makes sure that
+     * <code>drain</code> runs, in only one thread at a time, to act on
+     * it.  Once it has sent onComplete or onError, or the subscription
+     * is cancelled, drain never runs again.
+     */
+    private abstract static class Subscription implements Flow.Subscription {
+        final Flow.Subscriber<? super ByteBuffer> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        volatile boolean cancelled = false;
+        volatile Throwable error = null;
+
+        Subscription(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        void start() {
+            subscriber.onSubscribe(this);
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException(
+                        "non-positive request: " + n);
+            } else {
+                long d, nd;
+                do {
+                    d = demand.get();
+                    nd = d + n < 0 ? Long.MAX_VALUE : d + n;
+                } while (!demand.compareAndSet(d, nd));
+            }
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            signal();
+        }
+
+        boolean hasDemand() {
+            return demand.get() > 0;
+        }
+
+        /**
+         * Send the next buffer.
+         */
+        void next(ByteBuffer bb) {
+            demand.decrementAndGet();
+            subscriber.onNext(bb);
+        }
+
+        /**
+         * Make sure drain runs, now or soon.
+         */
+        void signal() {
+            if (wip.getAndIncrement() == 0)
+                schedule();
+        }
+
+        /**
+         * Run drain, here or in another thread.
+         */
+        abstract void schedule();
+
+        /**
+         * Act on the current state.
+         *
+         * @return false if the subscription is over
+         */
+        abstract boolean step() throws IOException;
+
+        /**
+         * Release whatever's being read.
+         */
+        abstract void close();
+
+        /**
+         * Call step until there are no more signals to act on.
+         */
+        void drain() {
+            int missed = 1;
+            for (;;) {
+                if (cancelled) {
+                    close();
+                    return;
+                }
+                Throwable t = error;
+                if (t != null) {
+                    close();
+                    subscriber.onError(t);
+                    return;
+                }
+                try {
+                    if (!step())
+                        return;
+                } catch (IOException | RuntimeException e) {
+                    close();
+                    subscriber.onError(e);
+                    return;
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0)
+                    return;
+            }
+        }
+    }
+
+    /**
+     * A subscription that reads an InputStream.  Since reads block,
+     * drain runs in the Executor.
+     */
+    private static final class StreamSubscription extends Subscription {
+        private final DataSource ds;
+        private final Executor executor;
+        private InputStream in = null;
+
+        StreamSubscription(Flow.Subscriber<? super ByteBuffer> subscriber,
+                           DataSource ds, Executor executor) {
+            super(subscriber);
+            this.ds = ds;
+            this.executor = executor;
+        }
+
+        @Override
+        void schedule() {
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // drain isn't running, and won't run again
+                close();
+                subscriber.onError(e);
+            }
+        }
+
+        @Override
+        boolean step() throws IOException {
+            while (hasDemand() && !cancelled) {
+                if (in == null)
+                    in = ds.getInputStream();
+                byte[] b = new byte[CHUNK_SIZE];
+                int n = in.read(b);
+                if (n < 0) {
+                    close();
+                    subscriber.onComplete();
+                    return false;
+                }
+                if (n > 0)
+                    next(ByteBuffer.wrap(b, 0, n));
+            }
+            return true;
+        }
+
+        @Override
+        void close() {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    // ignore it
+                }
+                in = null;
+            }
+        }
+    }
+
+    /**
+     * A subscription that reads a file with an AsynchronousFileChannel.
+     * One read at a time is started when there's demand, and drain runs
+     * in whatever thread requests more data or completes a read.
+     */
+    private static final class FileSubscription extends Subscription
+            implements CompletionHandler<Integer, ByteBuffer> {
+        private final AsynchronousFileChannel ch;
+        private long position = 0;
+        private boolean reading = false;    // a read is in progress
+        private volatile ByteBuffer ready = null;    // its result
+        private volatile boolean eof = false;
+
+        FileSubscription(Flow.Subscriber<? super ByteBuffer> subscriber,
+                         AsynchronousFileChannel ch) {
+            super(subscriber);
+            this.ch = ch;
+        }
+
+        @Override
+        void schedule() {
+            drain();
+        }
+
+        @Override
+        boolean step() {
+            if (eof) {
+                close();
+                subscriber.onComplete();
+                return false;
+            }
+            ByteBuffer bb = ready;
+            if (bb != null) {
+                ready = null;
+                reading = false;
+                bb.flip();
+                if (bb.hasRemaining()) {
+                    position += bb.remaining();
+                    next(bb);
+                }
+            }
+            if (!reading && hasDemand() && !cancelled) {
+                reading = true;
+                ByteBuffer buf = ByteBuffer.allocate(CHUNK_SIZE);
+                ch.read(buf, position, buf, this);
+            }
+            return true;
+        }
+
+        @Override
+        void close() {
+            try {
+                ch.close();
+            } catch (IOException e) {
+                // ignore it
+            }
+        }
+
+        @Override
+        public void completed(Integer n, ByteBuffer buf) {
+            if (n < 0)
+                eof = true;
+            else
+                ready = buf;
+            signal();
+        }
+
+        @Override
+        public void failed(Throwable exc, ByteBuffer buf) {
+            if (!cancelled)
+                error = exc;
+            signal();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 /*
  * Copyright (c) 1997, 2023, 2023 Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Distribution License v. 1.0, which is available at
@@ -14,9 +15,16 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The FileDataSource class implements a simple DataSource object
@@ -32,6 +40,14 @@ import java.nio.file.Paths;
  * FileTypeMap is set, the FileDataSource will call the FileTypeMap's
  * getDefaultFileTypeMap method to get the System's default FileTypeMap.
  * <p>
+ * The size, last modified time and entity tag of the data come from
+ * the attributes of the file, and parts of the data are read starting
+ * at their offset in the file.
+ * <p>
+ * In mapped mode, set with <code>setMapped</code>, the file is mapped
+ * into memory and read from there, by all the InputStreams of the
+ * FileDataSource, until the file's size or last modified time changes.
+ * <p>
  * <b>API Note:</b>
  * It is recommended to construct a {@code FileDataSource} using a {@code Path}
  * instead of using a {@code File} since {@code Path} contains enhanced functionality.
@@ -40,12 +56,48 @@ import java.nio.file.Paths;
  * @see jakarta.activation.FileTypeMap
  * @see jakarta.activation.MimetypesFileTypeMap
  */
-public class FileDataSource implements DataSource {
+public class FileDataSource
+        implements RangeDataSource, DataSourceMetadata {
 
     // keep track of original 'ref' passed in, non-null
     // one indicated which was passed in:
     private Path _path = null;
     private FileTypeMap typeMap = null;
+    private volatile ContentType contentType = null;
+    private volatile boolean mapped = false;
+    private volatile Mapping mapping = null;
+
+    /**
+     * The content type of the file, the FileTypeMap it was found with,
+     * and the FileTypeMap's changes count at the time.
+     */
+    private static final class ContentType {
+        final String type;
+        final FileTypeMap map;
+        final int changes;
+
+        ContentType(String type, FileTypeMap map, int changes) {
+            this.type = type;
+            this.map = map;
+            this.changes = changes;
+        }
+    }
+
+    /**
+     * The file mapped into memory, and the attributes the file had
+     * when it was mapped.
+     */
+    private static final class Mapping {
+        final ByteBuffer buffer;
+        final long size;
+        final FileTime lastModified;
+
+        Mapping(ByteBuffer buffer, long size, FileTime lastModified) {
+            this.buffer = buffer;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
 
     /**
      * Creates a FileDataSource from a File object. <i>Note:
@@ -89,22 +141,89 @@ public class FileDataSource implements DataSource {
      * the data and will throw an IOException if it can
      * not do so. This method will return a new
      * instance of InputStream with each invocation.
+     * In mapped mode, the InputStream reads the file from memory.
      *
      * @return an InputStream
+     * @see #setMapped
      */
     public InputStream getInputStream() throws IOException {
+        if (mapped) {
+            ByteBuffer buf = map();
+            if (buf != null)
+                return new ByteBufferInputStream(buf);
+        }
         return Files.newInputStream(_path);
     }
 
+    /**
+     * Return an InputStream for <code>length</code> bytes of the data,
+     * starting at <code>offset</code>, or for all the data from
+     * <code>offset</code> on if length is -1.  The file is read starting
+     * at the offset, or from memory in mapped mode.  If a subclass
+     * provides data other than that of the file, the bytes before the
+     * offset of its InputStream are skipped.
+     *
+     * @param offset the offset of the first byte to read
+     * @param length the number of bytes to read, or -1 for the rest
+     * @return an InputStream
+     * @exception IOException if the file can't be read
+     * @exception IllegalArgumentException if offset is negative, or
+     *                                     length is less than -1
+     * @since 2.2
+     */
+    @Override
+    public InputStream getInputStream(long offset, long length)
+            throws IOException {
+        RangeInputStream.checkRange(offset, length);
+        if (!readsFile(this))
+            return RangeDataSource.super.getInputStream(offset, length);
+
+        if (mapped) {
+            ByteBuffer buf = map();
+            if (buf != null) {
+                int size = buf.limit();
+                int start = (int) Math.min(offset, size);
+                int end = length < 0 ? size :
+                        (int) Math.min(size, start + Math.min(length, size));
+                buf.limit(end).position(start);
+                return new ByteBufferInputStream(buf);
+            }
+        }
+
+        FileChannel fc = FileChannel.open(_path, StandardOpenOption.READ);
+        try {
+            fc.position(offset);
+        } catch (IOException | RuntimeException e) {
+            fc.close();
+            throw e;
+        }
+        return new RangeInputStream(Channels.newInputStream(fc), length);
+    }
+
     /**
      * This method will return an OutputStream representing the
      * the data and will throw an IOException if it can
      * not do so. This method will return a new instance of
      * OutputStream with each invocation.
+     * <p>
+     * The file is truncated.  ByteBuffers returned by
+     * <code>getByteBuffer</code>, and InputStreams returned in mapped
+     * mode, read the file through a mapping, and reading past the new
+     * end of the file through them may fail with an
+     * <code>InternalError</code>, or worse, depending on the platform.
+     * So in mapped mode this method refuses to truncate the file;
+     * call <code>setMapped(false)</code>, after any such InputStreams
+     * and ByteBuffers are done with, first.
      *
      * @return an OutputStream
+     * @exception IOException if the file can't be opened, or in
+     *                        mapped mode
+     * @see #setMapped
      */
     public OutputStream getOutputStream() throws IOException {
+        if (mapped)
+            throw new IOException("File is mapped: " + _path);
+        mapping = null;
         return Files.newOutputStream(_path);
     }
 
@@ -115,16 +234,34 @@ public class FileDataSource implements DataSource {
      * call the <code>getDefaultFileTypeMap</code> method on
      * FileTypeMap to acquire a default FileTypeMap. <i>Note: By
      * default, the FileTypeMap used will be a MimetypesFileTypeMap.</i>
+     * <p>
+     * The MIME type is remembered, and is looked up again only when a
+     * different FileTypeMap is to be used, or after entries are added
+     * to the MimetypesFileTypeMap it was found with.  It isn't
+     * remembered if neither this FileDataSource nor
+     * <code>setDefaultFileTypeMap</code> set a FileTypeMap, since the
+     * default then depends on the thread's context class loader.
      *
      * @return the MIME Type
      * @see jakarta.activation.FileTypeMap#getDefaultFileTypeMap
      */
     public String getContentType() {
         // check to see if the type map is null?
-        if (typeMap == null)
-            return FileTypeMap.getDefaultFileTypeMap().getContentType(_path);
-        else
-            return typeMap.getContentType(_path);
+        FileTypeMap map = typeMap;
+        if (map == null) {
+            map = FileTypeMap.getSetDefaultFileTypeMap();
+            if (map == null)    // the default differs between threads
+                return FileTypeMap.getDefaultFileTypeMap()
+                        .getContentType(_path);
+        }
+        int changes = map.getChanges();
+        ContentType ct = contentType;
+        if (ct != null && ct.map == map && ct.changes == changes)
+            return ct.type;
+
+        String type = map.getContentType(_path);
+        contentType = new ContentType(type, map, changes);
+        return type;
     }
 
     /**
@@ -156,12 +293,210 @@ public class FileDataSource implements DataSource {
         return _path;
     }
 
+    /**
+     * Set whether the file is read from memory.  In mapped mode the
+     * file is mapped into memory, read-only, and the mapping is shared
+     * by all the InputStreams returned by <code>getInputStream</code>,
+     * which saves reading the file over and over.  The file is mapped
+     * again if its size or last modified time changes.  Files too large
+     * to map are read as usual.
+     * <p>
+     * The file should not be truncated while it's mapped; what happens
+     * to a mapping when its file is truncated depends on the platform.
+     * <code>getOutputStream</code>, which truncates the file, fails in
+     * mapped mode.
+     *
+     * @param mapped true to read the file from memory
+     * @since 2.2
+     */
+    public synchronized void setMapped(boolean mapped) {
+        this.mapped = mapped;
+        if (!mapped)
+            mapping = null;
+    }
+
+    /**
+     * Return whether the file is read from memory.
+     *
+     * @return true in mapped mode
+     * @see #setMapped
+     * @since 2.2
+     */
+    public boolean isMapped() {
+        return mapped;
+    }
+
+    /**
+     * Return the data as a read-only ByteBuffer.  The file is mapped
+     * into memory.  In mapped mode each call returns a new ByteBuffer
+     * that shares the mapping the InputStreams use; otherwise each call
+     * maps the file anew, and the mapping lasts as long as the
+     * ByteBuffer.  If a subclass provides data other than that of the
+     * file, the data is read from <code>getInputStream</code> into the
+     * ByteBuffer.
+     * <p>
+     * The file should not be truncated, for instance with
+     * <code>getOutputStream</code>, while the ByteBuffer is used;
+     * reading past the new end of the file through the ByteBuffer may
+     * fail with an <code>InternalError</code>, or worse, depending on
+     * the platform.
+     *
+     * @return a read-only ByteBuffer with the data
+     * @exception IOException if the file can't be mapped, or is too
+     *                        large to map
+     * @since 2.2
+     */
+    public ByteBuffer getByteBuffer() throws IOException {
+        if (!readsFile(this)) {
+            try (InputStream is = getInputStream()) {
+                return ByteBuffer.wrap(is.readAllBytes()).asReadOnlyBuffer();
+            }
+        }
+        ByteBuffer buf;
+        if (mapped)
+            buf = map();
+        else    // a mapping of its own, not kept
+            buf = mapFile(Files.readAttributes(_path,
+                    BasicFileAttributes.class)).buffer;
+        if (buf == null)
+            throw new IOException("File too large to map: " + _path);
+        return buf;
+    }
+
+    /**
+     * Return a new view of the mapped file, mapping it if it isn't
+     * mapped or has changed since, or null if it's too large to map.
+     * The mapping is kept while in mapped mode.
+     */
+    private ByteBuffer map() throws IOException {
+        BasicFileAttributes attrs =
+                Files.readAttributes(_path, BasicFileAttributes.class);
+        Mapping m = mapping;
+        if (m != null && m.size == attrs.size() &&
+                m.lastModified.equals(attrs.lastModifiedTime()))
+            return m.buffer.duplicate();
+        m = mapFile(attrs);
+        if (m.buffer == null)
+            return null;
+        synchronized (this) {
+            // setMapped(false) may have run since
+            if (mapped)
+                mapping = m;
+        }
+        return m.buffer.duplicate();
+    }
+
+    /**
+     * Map the file, which had the given attributes.  The buffer of the
+     * Mapping is null if the file is too large to map.
+     */
+    private Mapping mapFile(BasicFileAttributes attrs) throws IOException {
+        if (attrs.size() > Integer.MAX_VALUE)
+            return new Mapping(null, attrs.size(), attrs.lastModifiedTime());
+
+        try (FileChannel fc = FileChannel.open(_path,
+                StandardOpenOption.READ)) {
+            // if the file changed since, the next call maps it again
+            long size = Math.min(fc.size(), attrs.size());
+            return new Mapping(fc.map(FileChannel.MapMode.READ_ONLY, 0, size),
+                    size, attrs.lastModifiedTime());
+        }
+    }
+
+    /**
+     * Return the size of the file, or -1 if it can't be determined,
+     * or if a subclass provides data other than that of the file.
+     *
+     * @return the size of the data, or -1
+     * @since 2.2
+     */
+    @Override
+    public long getSize() {
+        BasicFileAttributes attrs = readAttributes();
+        return attrs != null ? attrs.size() : -1;
+    }
+
+    /**
+     * Return the time the file was last modified, or -1 if it can't
+     * be determined, or if a subclass provides data other than that
+     * of the file.
+     *
+     * @return the last modified time, or -1
+     * @since 2.2
+     */
+    @Override
+    public long getLastModified() {
+        BasicFileAttributes attrs = readAttributes();
+        return attrs != null ? attrs.lastModifiedTime().toMillis() : -1;
+    }
+
+    /**
+     * Return an entity tag made from the size and the last modified
+     * time of the file, or null if they can't be determined, or if a
+     * subclass provides data other than that of the file.
+     *
+     * @return the entity tag, or null
+     * @since 2.2
+     */
+    @Override
+    public String getEntityTag() {
+        BasicFileAttributes attrs = readAttributes();
+        if (attrs == null)
+            return null;
+        long mtime = attrs.lastModifiedTime().to(TimeUnit.MICROSECONDS);
+        return "\"" + Long.toHexString(attrs.size()) + "-" +
+                Long.toHexString(mtime) + "\"";
+    }
+
+    /**
+     * Return the attributes of the file, or null.
+     */
+    private BasicFileAttributes readAttributes() {
+        if (!readsFile(this))
+            return null;
+        try {
+            return Files.readAttributes(_path, BasicFileAttributes.class);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
     /**
      * Set the FileTypeMap to use with this FileDataSource
      *
      * @param map The FileTypeMap for this object.
      */
     public void setFileTypeMap(FileTypeMap map) {
-        typeMap = map;
+        synchronized (this) {
+            typeMap = map;
+            contentType = null;
+        }
+    }
+
+    /*
+     * Does the FileDataSource class override getInputStream?  If so
+     * the data might not be just the bytes of the file.
+     */
+    private static final ClassValue<Boolean> readsOwnStream =
+            new ClassValue<Boolean>() {
+                @Override
+                protected Boolean computeValue(Class<?> c) {
+                    try {
+                        return c.getMethod("getInputStream")
+                                .getDeclaringClass() != FileDataSource.class;
+                    } catch (NoSuchMethodException | SecurityException e) {
+                        return Boolean.TRUE;
+                    }
+                }
+            };
+
+    /**
+     * Is the DataSource a FileDataSource whose data is just the bytes
+     * of its file, so that the file may be read some other way than
+     * through <code>getInputStream</code>?
+     */
+    static boolean readsFile(DataSource ds) {
+        return ds instanceof FileDataSource &&
+                !readsOwnStream.get(ds.getClass());
     }
 }
@@ -1,5 +1,6 @@
 /*
  * Copyright (c) 1997, 2023, 2023 Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Distribution License v. 1.0, which is available at
@@ -33,7 +34,7 @@ import java.util.WeakHashMap;
 
 public abstract class FileTypeMap {
 
-    private static FileTypeMap defaultMap = null;
+    private static volatile FileTypeMap defaultMap = null;
     private static Map<ClassLoader, FileTypeMap> map =
             new WeakHashMap<>();
 
@@ -107,4 +108,21 @@ public abstract class FileTypeMap {
         }
         return def;
     }
+
+    /**
+     * Return the FileTypeMap set with setDefaultFileTypeMap, or null
+     * if the default depends on the thread's context class loader.
+     */
+    static FileTypeMap getSetDefaultFileTypeMap() {
+        return defaultMap;
+    }
+
+    /**
+     * Return a number that changes whenever the types this FileTypeMap
+     * returns may have changed.  This FileTypeMap is assumed never to
+     * change.
+     */
+    int getChanges() {
+        return 0;
+    }
 }
@@ -1,5 +1,6 @@
 /*
  * Copyright (c) 1997, 2025 Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Distribution License v. 1.0, which is available at
@@ -15,14 +16,20 @@ import jakarta.activation.spi.MailcapRegistryProvider;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.UndeclaredThrowableException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.ServiceConfigurationError;
+import java.util.WeakHashMap;
 
 /**
  * MailcapCommandMap extends the CommandMap
@@ -119,6 +126,59 @@ public class MailcapCommandMap extends CommandMap {
     private MailcapRegistry[] DB;
     private static final int PROG = 0;    // programmatically added entries
 
+    /*
+     * The DataContentHandler classes found for MIME types, for each
+     * context class loader, since that's the loader the classes are
+     * loaded with.  A value is a weak reference to the class, so that
+     * it doesn't keep the class loader from being unloaded.  Only
+     * MIME types that have a class are kept, and only well formed
+     * base types, and each class loader's map is emptied when it fills
+     * up, so MIME types from untrusted data can't fill it.  Emptied
+     * when entries are added.  Guarded by resolvedLock, and only filled
+     * while holding the lock on the MailcapCommandMap.
+     */
+    private static final int RESOLVED_SIZE = 256;
+    private final Object resolvedLock = new Object();
+    private final Map<ClassLoader, Map<String, Reference<Class<?>>>>
+            resolved = new WeakHashMap<>();
+
+    /*
+     * The constructor and transfer flavors of each DataContentHandler
+     * class, kept with the class itself.  If an instance can't be
+     * created, nothing is kept, and the next lookup tries again.
+     */
+    private static final ClassValue<ResolvedHandler> handlerClasses =
+            new ClassValue<ResolvedHandler>() {
+                @Override
+                protected ResolvedHandler computeValue(Class<?> c) {
+                    try {
+                        Constructor<?> cons = c.getConstructor();
+                        DataContentHandler dch =
+                                (DataContentHandler) cons.newInstance();
+                        return new ResolvedHandler(cons,
+                                dch.getTransferDataFlavors());
+                    } catch (ReflectiveOperationException e) {
+                        // a ClassValue remembers values, not exceptions
+                        throw new UndeclaredThrowableException(e);
+                    }
+                }
+            };
+
+    /**
+     * Return the constructor and transfer flavors of the class, or null
+     * if an instance of it can't be created.
+     */
+    private static ResolvedHandler getHandlerClass(Class<?> cl) {
+        try {
+            return handlerClasses.get(cl);
+        } catch (UndeclaredThrowableException e) {
+            if (LogSupport.isLoggable())
+                LogSupport.log("Can't create DCH " + cl.getName(),
+                        e.getUndeclaredThrowable());
+            return null;
+        }
+    }
+
     private static final String confDir;
 
     static {
@@ -557,6 +617,9 @@ public class MailcapCommandMap extends CommandMap {
                 DB[PROG] = getImplementation().getInMemory();
             }
             DB[PROG].appendToMailcap(mail_cap);
+            synchronized (resolvedLock) {
+                resolved.clear();
+            }
         } catch (NoSuchElementException | IllegalStateException | ServiceConfigurationError e) {
             if (LogSupport.isLoggable()) {
                 LogSupport.log("Cannot find or load an implementation for MailcapRegistryProvider. " +
@@ -572,14 +635,79 @@ public class MailcapCommandMap extends CommandMap {
      * @param mimeType the MIME type
      * @return the DataContentHandler
      */
-    public synchronized DataContentHandler createDataContentHandler(
-            String mimeType) {
+    public DataContentHandler createDataContentHandler(String mimeType) {
         if (LogSupport.isLoggable())
             LogSupport.log(
                     "MailcapCommandMap: createDataContentHandler for " + mimeType);
+        return getResolvedHandler(mimeType).newInstance();
+    }
+
+    /**
+     * Return the DataContentHandler class for the MIME type, finding
+     * it if it hasn't been found before with the current context
+     * class loader.
+     */
+    ResolvedHandler getResolvedHandler(String mimeType) {
         if (mimeType != null)
             mimeType = mimeType.toLowerCase(Locale.ENGLISH);
+        ClassLoader cld = Thread.currentThread().getContextClassLoader();
+        ResolvedHandler rh = getResolved(cld, mimeType);
+        if (rh != null)
+            return rh;
+
+        synchronized (this) {
+            // addMailcap can't run until the new entry is in place
+            rh = getResolved(cld, mimeType);
+            if (rh != null)
+                return rh;
+            Class<?> cl = resolve(mimeType);
+            rh = cl != null ? getHandlerClass(cl) : null;
+            if (rh == null)
+                return ResolvedHandler.NONE;    // not remembered
+            if (isBaseType(mimeType)) {
+                synchronized (resolvedLock) {
+                    Map<String, Reference<Class<?>>> m =
+                            resolved.computeIfAbsent(cld, k -> new HashMap<>());
+                    if (m.size() >= RESOLVED_SIZE)
+                        m.clear();
+                    m.put(mimeType, new WeakReference<>(cl));
+                }
+            }
+            return rh;
+        }
+    }
+
+    /**
+     * Return the DataContentHandler class found before for the MIME
+     * type, or null if it hasn't been found yet.
+     */
+    private ResolvedHandler getResolved(ClassLoader cld, String mimeType) {
+        Reference<Class<?>> ref;
+        synchronized (resolvedLock) {
+            Map<String, Reference<Class<?>>> m = resolved.get(cld);
+            ref = m != null ? m.get(mimeType) : null;
+        }
+        Class<?> cl = ref != null ? ref.get() : null;
+        return cl != null ? getHandlerClass(cl) : null;
+    }
+
+    /**
+     * Is the MIME type just a type and subtype, without parameters?
+     */
+    private static boolean isBaseType(String mimeType) {
+        if (mimeType == null)
+            return false;
+        int len = mimeType.length();
+        int slash = MimeTypeParser.skipToken(mimeType, 0);
+        return slash > 0 && slash < len - 1 &&
+                mimeType.charAt(slash) == '/' &&
+                MimeTypeParser.skipToken(mimeType, slash + 1) == len;
+    }
 
+    /**
+     * Find the DataContentHandler class for the MIME type, or null.
+     */
+    private synchronized Class<?> resolve(String mimeType) {
         for (int i = 0; i < DB.length; i++) {
             if (DB[i] == null)
                 continue;
@@ -590,9 +718,9 @@ public class MailcapCommandMap extends CommandMap {
                 List<String> v = cmdMap.get("content-handler");
                 if (v != null) {
                     String name = v.get(0);
-                    DataContentHandler dch = getDataContentHandler(name);
-                    if (dch != null)
-                        return dch;
+                    Class<?> cl = getDataContentHandler(name);
+                    if (cl != null)
+                        return cl;
                 }
             }
         }
@@ -608,16 +736,20 @@ public class MailcapCommandMap extends CommandMap {
                 List<String> v = cmdMap.get("content-handler");
                 if (v != null) {
                     String name = v.get(0);
-                    DataContentHandler dch = getDataContentHandler(name);
-                    if (dch != null)
-                        return dch;
+                    Class<?> cl = getDataContentHandler(name);
+                    if (cl != null)
+                        return cl;
                 }
             }
         }
         return null;
     }
 
-    private DataContentHandler getDataContentHandler(String name) {
+    /**
+     * Load the DataContentHandler class, returning it if instances
+     * of it can be created, else null.
+     */
+    private Class<?> getDataContentHandler(String name) {
         if (LogSupport.isLoggable())
             LogSupport.log("    got content-handler");
         if (LogSupport.isLoggable())
@@ -635,9 +767,8 @@ public class MailcapCommandMap extends CommandMap {
                 // if anything goes wrong, do it the old way
                 cl = Class.forName(name);
             }
-            if (cl != null)        // XXX - always true?
-                return (DataContentHandler)
-                        cl.getConstructor().newInstance();
+            if (cl != null && getHandlerClass(cl) != null)
+                return cl;
         } catch (ReflectiveOperationException e) {
             if (LogSupport.isLoggable())
                 LogSupport.log("Can't load DCH " + name, e);
@@ -1,5 +1,6 @@
 /*
  * Copyright (c) 2021, 2025 Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Distribution License v. 1.0, which is available at
@@ -22,6 +23,10 @@ import java.util.Map;
  * can store MailcapEntries in different ways and that storage must be accessible through the
  * {@link jakarta.activation.spi.MailcapRegistryProvider} methods.
  * Implementation of the MailcapRegistry must contain in-memory storage for MailcapEntries.
+ * <p>
+ * Implementations should intern the MIME type strings they keep, so that
+ * registries loaded from different resources share a single copy of each
+ * MIME type.
  */
 public interface MailcapRegistry {
 
@@ -1,5 +1,6 @@
 /*
  * Copyright (c) 1997, 2023 Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Distribution License v. 1.0, which is available at
@@ -14,7 +15,14 @@ import java.io.Externalizable;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A Multipurpose Internet Mail Extension (MIME) type, as defined
@@ -24,14 +32,114 @@ public class MimeType implements Externalizable {
 
     private String primaryType;
     private String subType;
-    private MimeTypeParameterList parameters;
+    // volatile, since it may be set lazily by any thread reading it
+    private volatile MimeTypeParameterList parameters;
+
+    // the unparsed parameter list, kept even once it's been parsed, so
+    // that a thread that doesn't yet see the parsed list can parse it
+    // again; that's harmless, both get the same parameters
+    private transient String rawParameters;
+    private transient int rawParametersStart;
+
+    // the base type, computed on demand
+    private transient String baseType;
+
+    // instances returned by valueOf may not be modified
+    private transient boolean immutable;
 
     private static final long serialVersionUID = 7548163901563814301L;
 
-    /**
-     * A string that holds all the special chars.
+    /*
+     * Cache of the immutable instances returned by valueOf, keyed by
+     * the string they were parsed from and by their canonical string
+     * form.  When it fills up it's simply emptied again.
+     */
+    private static final int CACHE_SIZE = 512;
+    private static final Map<String, MimeType> cache =
+            new ConcurrentHashMap<>();
+
+    /*
+     * Cache of charset parameter values resolved by getCharset, keyed
+     * by the value as it appears in the parameter.  Values that don't
+     * name a supported charset map to noCharset.  Emptied when full,
+     * like the cache above.
+     */
+    private static final Map<String, Object> charsets =
+            new ConcurrentHashMap<>();
+    private static final Object noCharset = new Object();
+
+    /*
+     * The binary external form, version 1, is:
+     *
+     *   UTF     ""  (an empty string, never written by the text form)
+     *   byte    version
+     *   byte    index of the base type in commonTypes, or 0 followed by
+     *   UTF     primary type
+     *   UTF     sub type
+     *   short   number of parameters, followed by that many
+     *   byte    index of the name in commonNames, or 0 followed by
+     *   UTF     name
+     *   UTF     value
+     *
+     * The text form, which is just toString() as a UTF string, is
+     * written by default, since earlier versions of this class can only
+     * read the text form; they fail on the empty string that starts the
+     * binary form.  Setting the System property
+     * "jakarta.activation.mimetype.externalBinary" to true writes the
+     * binary form, once every peer that reads it has this version.
+     * Both forms are always read.
+     */
+    private static final int EXTERNAL_VERSION = 1;
+
+    private static final boolean externalBinary =
+            Boolean.getBoolean("jakarta.activation.mimetype.externalBinary");
+
+    /*
+     * Primary and sub types of common base types, by index.  The
+     * index is part of the external form, so only ever add to the end.
      */
-    private static final String TSPECIALS = "()<>@,;:/[]?=\\\"";
+    private static final String[][] commonTypes = {
+        null,
+        { "text", "plain" },
+        { "text", "html" },
+        { "text", "xml" },
+        { "text", "csv" },
+        { "application", "octet-stream" },
+        { "application", "xml" },
+        { "application", "json" },
+        { "application", "pdf" },
+        { "application", "zip" },
+        { "application", "x-java-serialized-object" },
+        { "multipart", "mixed" },
+        { "multipart", "alternative" },
+        { "multipart", "related" },
+        { "multipart", "form-data" },
+        { "multipart", "signed" },
+        { "message", "rfc822" },
+        { "image", "gif" },
+        { "image", "jpeg" },
+        { "image", "png" },
+    };
+
+    /*
+     * Common parameter names, by index; again only ever add to the end.
+     */
+    private static final String[] commonNames = {
+        null, "charset", "boundary", "name", "format", "type",
+        "start", "delsp", "protocol", "micalg", "method", "version",
+    };
+
+    private static final Map<String, Integer> commonTypeIndex =
+            new HashMap<>();
+    private static final Map<String, Integer> commonNameIndex =
+            new HashMap<>();
+
+    static {
+        for (int i = 1; i < commonTypes.length; i++)
+            commonTypeIndex.put(commonTypes[i][0] + "/" + commonTypes[i][1], i);
+        for (int i = 1; i < commonNames.length; i++)
+            commonNameIndex.put(commonNames[i], i);
+    }
 
     /**
      * Default constructor.
@@ -39,7 +147,6 @@ public class MimeType implements Externalizable {
     public MimeType() {
         primaryType = "application";
         subType = "*";
-        parameters = new MimeTypeParameterList();
     }
 
     /**
@@ -52,6 +159,43 @@ public class MimeType implements Externalizable {
         parse(rawdata);
     }
 
+    /**
+     * Constructor that builds a MimeType from US-ASCII bytes, such as
+     * the value of a Content-Type header, in a region of a byte array.
+     * The bytes are parsed directly; only the parts of the MIME type
+     * are turned into Strings.
+     *
+     * @param data   the bytes containing the MIME type
+     * @param offset the index of the first byte of the MIME type
+     * @param length the number of bytes in the MIME type
+     * @exception MimeTypeParseException    if the MIME type can't be parsed
+     * @exception IndexOutOfBoundsException if the region is out of bounds
+     * @since 2.2
+     */
+    public MimeType(byte[] data, int offset, int length)
+            throws MimeTypeParseException {
+        parse(new AsciiSequence(data, offset, length));
+    }
+
+    /**
+     * Constructor that builds a MimeType from US-ASCII bytes, such as
+     * the value of a Content-Type header, in a region of a ByteBuffer.
+     * The offset is an absolute index; the buffer's position and limit
+     * are not changed.  The bytes are parsed directly; only the parts
+     * of the MIME type are turned into Strings.
+     *
+     * @param data   the buffer containing the MIME type
+     * @param offset the index of the first byte of the MIME type
+     * @param length the number of bytes in the MIME type
+     * @exception MimeTypeParseException    if the MIME type can't be parsed
+     * @exception IndexOutOfBoundsException if the region is out of bounds
+     * @since 2.2
+     */
+    public MimeType(ByteBuffer data, int offset, int length)
+            throws MimeTypeParseException {
+        parse(new AsciiSequence(data, offset, length));
+    }
+
     /**
      * Constructor that builds a MimeType with the given primary and sub type
      * but has an empty parameter list.
@@ -64,64 +208,125 @@ public class MimeType implements Externalizable {
     public MimeType(String primary, String sub) throws MimeTypeParseException {
         //    check to see if primary is valid
         if (isValidToken(primary)) {
-            primaryType = primary.toLowerCase(Locale.ENGLISH);
+            primaryType = MimeTypeParser.toLowerCase(primary, 0, primary.length());
         } else {
             throw new MimeTypeParseException("Primary type is invalid.");
         }
 
         //    check to see if sub is valid
         if (isValidToken(sub)) {
-            subType = sub.toLowerCase(Locale.ENGLISH);
+            subType = MimeTypeParser.toLowerCase(sub, 0, sub.length());
         } else {
             throw new MimeTypeParseException("Sub type is invalid.");
         }
+    }
 
-        parameters = new MimeTypeParameterList();
+    /**
+     * Return an immutable MimeType for the given String.
+     * <p>
+     * Parsed instances are cached, so calling this method repeatedly
+     * with the same content type is cheap, and equal content types
+     * usually yield the same instance.  Any attempt to modify the
+     * returned MimeType, or its parameter list, throws
+     * <code>UnsupportedOperationException</code>.
+     *
+     * @param rawdata the MIME type string
+     * @return the immutable MimeType
+     * @exception MimeTypeParseException    if the MIME type can't be parsed
+     * @since 2.2
+     */
+    public static MimeType valueOf(String rawdata)
+            throws MimeTypeParseException {
+        MimeType mt = cache.get(rawdata);
+        if (mt != null)
+            return mt;
+
+        mt = new MimeType(rawdata);
+        mt.immutable = true;
+        // parse the parameters now, the instance will be shared
+        mt.getParameters().setImmutable();
+
+        // use the instance already cached for the canonical form, if any
+        String canonical = mt.toString();
+        MimeType cmt = cache.get(canonical);
+        if (cmt != null)
+            mt = cmt;
+        // make room for both keys; every insert counts against the size,
+        // or variants of one type could fill the cache without limit
+        if (cache.size() >= CACHE_SIZE - 1)
+            cache.clear();
+        cache.putIfAbsent(canonical, mt);
+        cache.put(rawdata, mt);
+        return mt;
     }
 
     /**
-     * A routine for parsing the MIME type out of a String.
-     */
-    private void parse(String rawdata) throws MimeTypeParseException {
-        int slashIndex = rawdata.indexOf('/');
-        int semIndex = rawdata.indexOf(';');
-        if ((slashIndex < 0) && (semIndex < 0)) {
-            //    neither character is present, so treat it
-            //    as an error
-            throw new MimeTypeParseException("Unable to find a sub type.");
-        } else if ((slashIndex < 0) && (semIndex >= 0)) {
-            //    we have a ';' (and therefore a parameter list),
-            //    but no '/' indicating a sub type is present
-            throw new MimeTypeParseException("Unable to find a sub type.");
-        } else if ((slashIndex >= 0) && (semIndex < 0)) {
-            //    we have a primary and sub type but no parameter list
-            primaryType = rawdata.substring(0, slashIndex).trim().
-                    toLowerCase(Locale.ENGLISH);
-            subType = rawdata.substring(slashIndex + 1).trim().
-                    toLowerCase(Locale.ENGLISH);
+     * A routine for parsing the MIME type out of a String, or out of
+     * a view of some bytes.  The data is scanned once, front to back.
+     */
+    private void parse(CharSequence rawdata) throws MimeTypeParseException {
+        int length = rawdata.length();
+
+        //    the primary type, possibly surrounded by white space
+        int start = MimeTypeParser.skipBlanks(rawdata, 0);
+        int end = MimeTypeParser.skipToken(rawdata, start);
+        int i = checkPrimaryType(rawdata, start, end);
+        primaryType = MimeTypeParser.toLowerCase(rawdata, start, end);
+
+        //    the sub type, after the '/'
+        start = MimeTypeParser.skipBlanks(rawdata, i);
+        end = MimeTypeParser.skipToken(rawdata, start);
+        i = checkSubType(rawdata, start, end);
+        subType = MimeTypeParser.toLowerCase(rawdata, start, end);
+
+        baseType = null;
+        parameters = null;
+        rawParameters = null;
+        if (!(rawdata instanceof String)) {
+            //    the bytes belong to the caller, parse the parameters now
             parameters = new MimeTypeParameterList();
-        } else if (slashIndex < semIndex) {
-            //    we have all three items in the proper sequence
-            primaryType = rawdata.substring(0, slashIndex).trim().
-                    toLowerCase(Locale.ENGLISH);
-            subType = rawdata.substring(slashIndex + 1, semIndex).trim().
-                    toLowerCase(Locale.ENGLISH);
-            parameters = new MimeTypeParameterList(rawdata.substring(semIndex));
-        } else {
-            // we have a ';' lexically before a '/' which means we
-            // have a primary type and a parameter list but no sub type
-            throw new MimeTypeParseException("Unable to find a sub type.");
+            parameters.parse(rawdata, i);
+            return;
         }
 
-        //    now validate the primary and sub types
+        //    whatever is left is the parameter list; check it now
+        //    but don't parse it until it's needed
+        MimeTypeParameterList.validate(rawdata, i);
+        if (i < length) {
+            rawParameters = (String) rawdata;
+            rawParametersStart = i;
+        }
+    }
 
-        //    check to see if primary is valid
-        if (!isValidToken(primaryType))
-            throw new MimeTypeParseException("Primary type is invalid.");
+    /**
+     * Check the primary type, which runs from start to end of the
+     * data, and what follows it.  Return the index after the '/'.
+     */
+    private static int checkPrimaryType(CharSequence rawdata,
+                                        int start, int end)
+            throws MimeTypeParseException {
+        int i = MimeTypeParser.skipBlanks(rawdata, end);
+        if (i >= rawdata.length() || rawdata.charAt(i) != '/' ||
+                start == end) {
+            //    no '/', or a ';' lexically before it, means we
+            //    have no sub type; otherwise the primary type is bad
+            if (MimeTypeParser.hasSubType(rawdata, i))
+                throw new MimeTypeParseException("Primary type is invalid.");
+            throw new MimeTypeParseException("Unable to find a sub type.");
+        }
+        return i + 1;
+    }
 
-        //    check to see if sub is valid
-        if (!isValidToken(subType))
+    /**
+     * Check the sub type, which runs from start to end of the data,
+     * and what follows it.  Return the index of the parameter list.
+     */
+    private static int checkSubType(CharSequence rawdata, int start, int end)
+            throws MimeTypeParseException {
+        int i = MimeTypeParser.skipBlanks(rawdata, end);
+        if (start == end || (i < rawdata.length() && rawdata.charAt(i) != ';'))
             throw new MimeTypeParseException("Sub type is invalid.");
+        return i;
     }
 
     /**
@@ -141,10 +346,12 @@ public class MimeType implements Externalizable {
      * is not a valid token
      */
     public void setPrimaryType(String primary) throws MimeTypeParseException {
+        checkMutable();
         //    check to see if primary is valid
         if (!isValidToken(primaryType))
             throw new MimeTypeParseException("Primary type is invalid.");
         primaryType = primary.toLowerCase(Locale.ENGLISH);
+        baseType = null;
     }
 
     /**
@@ -164,10 +371,12 @@ public class MimeType implements Externalizable {
      * is not a valid token
      */
     public void setSubType(String sub) throws MimeTypeParseException {
+        checkMutable();
         //    check to see if sub is valid
         if (!isValidToken(subType))
             throw new MimeTypeParseException("Sub type is invalid.");
         subType = sub.toLowerCase(Locale.ENGLISH);
+        baseType = null;
     }
 
     /**
@@ -176,7 +385,20 @@ public class MimeType implements Externalizable {
      * @return a MimeTypeParameterList object representing the parameters
      */
     public MimeTypeParameterList getParameters() {
-        return parameters;
+        MimeTypeParameterList pl = parameters;
+        if (pl == null) {
+            pl = new MimeTypeParameterList();
+            if (rawParameters != null) {
+                try {
+                    pl.parse(rawParameters, rawParametersStart);
+                } catch (MimeTypeParseException e) {
+                    // can't happen, it was checked by parse
+                    throw new IllegalStateException(e);
+                }
+            }
+            parameters = pl;
+        }
+        return pl;
     }
 
     /**
@@ -187,7 +409,7 @@ public class MimeType implements Externalizable {
      * @return the paramter's value
      */
     public String getParameter(String name) {
-        return parameters.get(name);
+        return getParameters().get(name);
     }
 
     /**
@@ -198,7 +420,7 @@ public class MimeType implements Externalizable {
      * @param value the paramter's value
      */
     public void setParameter(String name, String value) {
-        parameters.set(name, value);
+        getParameters().set(name, value);
     }
 
     /**
@@ -207,14 +429,45 @@ public class MimeType implements Externalizable {
      * @param name the parameter name
      */
     public void removeParameter(String name) {
-        parameters.remove(name);
+        getParameters().remove(name);
+    }
+
+    /**
+     * Return the Charset named by the <code>charset</code> parameter,
+     * or the given default if there is no such parameter or it doesn't
+     * name a charset supported by this JVM.  The charsets are cached,
+     * so aliases and unsupported names are looked up only once.
+     *
+     * @param defaultCharset the Charset to return if there is none
+     * @return the Charset
+     * @since 2.2
+     */
+    public Charset getCharset(Charset defaultCharset) {
+        String name = getParameter("charset");
+        if (name == null)
+            return defaultCharset;
+        Object cs = charsets.get(name);
+        if (cs == null) {
+            try {
+                cs = Charset.forName(name.trim());
+            } catch (IllegalCharsetNameException |
+                     UnsupportedCharsetException ex) {
+                cs = noCharset;
+            }
+            if (charsets.size() >= CACHE_SIZE)
+                charsets.clear();
+            charsets.put(name, cs);
+        }
+        return cs == noCharset ? defaultCharset : (Charset) cs;
     }
 
     /**
      * Return the String representation of this object.
      */
     public String toString() {
-        return getBaseType() + parameters.toString();
+        if (parameters == null && rawParameters == null)
+            return getBaseType();
+        return getBaseType() + getParameters().toString();
     }
 
     /**
@@ -224,7 +477,45 @@ public class MimeType implements Externalizable {
      * @return the MIME type and sub-type
      */
     public String getBaseType() {
-        return primaryType + "/" + subType;
+        String bt = baseType;
+        if (bt == null)
+            baseType = bt = primaryType + "/" + subType;
+        return bt;
+    }
+
+    /**
+     * Determine whether this object is equal to another MimeType.
+     * Two MimeTypes are equal if they have the same primary type,
+     * subtype, and parameters; the order of the parameters is
+     * not significant.
+     *
+     * @param o the object to compare with
+     * @return true if the object is an equal MimeType
+     * @since 2.2
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof MimeType))
+            return false;
+        MimeType mt = (MimeType) o;
+        return primaryType.equals(mt.primaryType) &&
+                subType.equals(mt.subType) &&
+                getParameters().equals(mt.getParameters());
+    }
+
+    /**
+     * Return a hash code for this MimeType, consistent with
+     * <code>equals</code>.
+     *
+     * @return the hash code
+     * @since 2.2
+     */
+    @Override
+    public int hashCode() {
+        return (primaryType.hashCode() * 31 + subType.hashCode()) * 31 +
+                getParameters().hashCode();
     }
 
     /**
@@ -250,7 +541,30 @@ public class MimeType implements Externalizable {
      * @exception MimeTypeParseException    if the MIME type can't be parsed
      */
     public boolean match(String rawdata) throws MimeTypeParseException {
-        return match(new MimeType(rawdata));
+        //    compare the types in place, without creating a MimeType;
+        //    the whole string is still checked, as the constructor would
+        int pstart = MimeTypeParser.skipBlanks(rawdata, 0);
+        int pend = MimeTypeParser.skipToken(rawdata, pstart);
+        int sstart = MimeTypeParser.skipBlanks(rawdata,
+                checkPrimaryType(rawdata, pstart, pend));
+        int send = MimeTypeParser.skipToken(rawdata, sstart);
+        MimeTypeParameterList.validate(rawdata,
+                checkSubType(rawdata, sstart, send));
+
+        return regionEquals(rawdata, pstart, pend, primaryType)
+                && (subType.equals("*")
+                || (send - sstart == 1 && rawdata.charAt(sstart) == '*')
+                || regionEquals(rawdata, sstart, send, subType));
+    }
+
+    /**
+     * Determine whether the token from start to end of rawdata is the
+     * same as the given (lower case) type, ignoring case.
+     */
+    private static boolean regionEquals(String rawdata, int start, int end,
+                                        String type) {
+        return type.length() == end - start &&
+                rawdata.regionMatches(true, start, type, 0, end - start);
     }
 
     /**
@@ -258,12 +572,47 @@ public class MimeType implements Externalizable {
      * by calling the methods of DataOutput for its primitive values or
      * calling the writeObject method of ObjectOutput for objects, strings
      * and arrays.
+     * <p>
+     * The MIME type is written as text, which every version of this
+     * class can read.  If the System property
+     * <code>jakarta.activation.mimetype.externalBinary</code> is set to
+     * true, it is written instead in a compact, versioned binary form
+     * that can be read back without parsing the MIME type text.
+     * <b>Earlier versions of this class can't read the binary form</b>,
+     * so set the property only when all the readers have this version.
      *
      * @param out the ObjectOutput object to write to
      * @throws IOException Includes any I/O exceptions that may occur
      */
     public void writeExternal(ObjectOutput out) throws IOException {
-        out.writeUTF(toString());
+        if (!externalBinary) {
+            out.writeUTF(toString());
+            out.flush();
+            return;
+        }
+
+        out.writeUTF("");        // marks the binary form
+        out.writeByte(EXTERNAL_VERSION);
+        Integer index = commonTypeIndex.get(getBaseType());
+        if (index != null) {
+            out.writeByte(index);
+        } else {
+            out.writeByte(0);
+            out.writeUTF(primaryType);
+            out.writeUTF(subType);
+        }
+        String[] params = getParameters().pairs();
+        out.writeShort(params.length >> 1);
+        for (int i = 0; i < params.length; i += 2) {
+            index = commonNameIndex.get(params[i]);
+            if (index != null) {
+                out.writeByte(index);
+            } else {
+                out.writeByte(0);
+                out.writeUTF(params[i]);
+            }
+            out.writeUTF(params[i + 1]);
+        }
         out.flush();
     }
 
@@ -273,6 +622,9 @@ public class MimeType implements Externalizable {
      * types and readObject for objects, strings and arrays.  The
      * readExternal method must read the values in the same sequence
      * and with the same types as were written by writeExternal.
+     * <p>
+     * Both the binary form and the text form written by earlier
+     * versions of this class are accepted.
      *
      * @param in the ObjectInput object to read from
      * @throws ClassNotFoundException If the class for an object being
@@ -280,38 +632,79 @@ public class MimeType implements Externalizable {
      */
     public void readExternal(ObjectInput in)
             throws IOException, ClassNotFoundException {
-        try {
-            parse(in.readUTF());
-        } catch (MimeTypeParseException e) {
-            throw new IOException(e.toString());
+        checkMutable();
+        String text = in.readUTF();
+        if (!text.isEmpty()) {
+            // the text form
+            try {
+                parse(text);
+            } catch (MimeTypeParseException e) {
+                throw new IOException(e.toString());
+            }
+            return;
         }
-    }
 
-    //    below here be scary parsing related things
+        int version = in.readUnsignedByte();
+        if (version != EXTERNAL_VERSION)
+            throw new IOException("Unsupported MimeType external version " +
+                    version);
+        String primary, sub;
+        int index = in.readUnsignedByte();
+        if (index != 0) {
+            if (index >= commonTypes.length)
+                throw new IOException("Unknown MimeType index " + index);
+            primary = commonTypes[index][0];
+            sub = commonTypes[index][1];
+        } else {
+            primary = in.readUTF();
+            sub = in.readUTF();
+            if (!isValidToken(primary))
+                throw new IOException("Primary type is invalid.");
+            if (!isValidToken(sub))
+                throw new IOException("Sub type is invalid.");
+        }
+
+        MimeTypeParameterList pl = new MimeTypeParameterList();
+        int count = in.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            String name;
+            index = in.readUnsignedByte();
+            if (index != 0) {
+                if (index >= commonNames.length)
+                    throw new IOException("Unknown parameter index " + index);
+                name = commonNames[index];
+            } else {
+                name = in.readUTF();
+                if (!isValidToken(name))
+                    throw new IOException("Parameter name is invalid.");
+            }
+            pl.set(name, in.readUTF());
+        }
+
+        primaryType = MimeTypeParser.toLowerCase(primary, 0, primary.length());
+        subType = MimeTypeParser.toLowerCase(sub, 0, sub.length());
+        baseType = null;
+        rawParameters = null;
+        parameters = pl;
+    }
 
     /**
-     * Determine whether or not a given character belongs to a legal token.
+     * Throw an UnsupportedOperationException if this is one of the
+     * immutable instances returned by valueOf.
      */
-    private static boolean isTokenChar(char c) {
-        return ((c > 040) && (c < 0177)) && (TSPECIALS.indexOf(c) < 0);
+    private void checkMutable() {
+        if (immutable)
+            throw new UnsupportedOperationException(
+                    "MimeType is immutable: " + this);
     }
 
+    //    below here be scary parsing related things
+
     /**
      * Determine whether or not a given string is a legal token.
      */
     private boolean isValidToken(String s) {
-        int len = s.length();
-        if (len > 0) {
-            for (int i = 0; i < len; ++i) {
-                char c = s.charAt(i);
-                if (!isTokenChar(c)) {
-                    return false;
-                }
-            }
-            return true;
-        } else {
-            return false;
-        }
+        return MimeTypeParser.isValidToken(s);
     }
 
     /*
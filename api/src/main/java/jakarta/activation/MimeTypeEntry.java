@@ -1,5 +1,6 @@
 /*
  * Copyright (c) 1997, 2023 Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Distribution License v. 1.0, which is available at
@@ -10,12 +11,29 @@
 
 package jakarta.activation;
 
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
 /**
  * Represents mapping between the file extension and the MIME type string.
+ * <p>
+ * Registries may use {@link #valueOf valueOf} to obtain their entries,
+ * so that equal entries, and their MIME type and file extension strings,
+ * are shared by all the registries that use it.
  */
 public class MimeTypeEntry {
-    private String type;
-    private String extension;
+    private final String type;
+    private final String extension;
+
+    /*
+     * Canonical entries, shared by all registries.  The entries are
+     * only weakly held so that they go away with the last registry
+     * that uses them.
+     */
+    private static final Map<MimeTypeEntry, WeakReference<MimeTypeEntry>> pool =
+            new WeakHashMap<>();
 
     /**
      * Create new {@code MimeTypeEntry}
@@ -28,6 +46,31 @@ public class MimeTypeEntry {
         extension = file_ext;
     }
 
+    /**
+     * Return the canonical {@code MimeTypeEntry} for the MIME type
+     * and file extension.  Equal entries requested by any registry
+     * are the same object, and its strings are interned.
+     *
+     * @param mime_type the MIME type string
+     * @param file_ext  the file extension
+     * @return the shared {@code MimeTypeEntry}
+     * @since 2.2
+     */
+    public static MimeTypeEntry valueOf(String mime_type, String file_ext) {
+        MimeTypeEntry entry = new MimeTypeEntry(
+                mime_type != null ? mime_type.intern() : null,
+                file_ext != null ? file_ext.intern() : null);
+        synchronized (pool) {
+            WeakReference<MimeTypeEntry> ref = pool.get(entry);
+            MimeTypeEntry canonical = ref != null ? ref.get() : null;
+            if (canonical == null) {
+                pool.put(entry, new WeakReference<>(entry));
+                canonical = entry;
+            }
+            return canonical;
+        }
+    }
+
     /**
      * Get MIME type string
      *
@@ -46,6 +89,22 @@ public class MimeTypeEntry {
         return extension;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || o.getClass() != getClass())
+            return false;
+        MimeTypeEntry e = (MimeTypeEntry) o;
+        return Objects.equals(type, e.type) &&
+                Objects.equals(extension, e.extension);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, extension);
+    }
+
     @Override
     public String toString() {
         return "MIMETypeEntry: " + type + ", " + extension;
@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jakarta.activation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The MimeTypeMatcher class matches MIME types against a set of
+ * MIME type patterns, each associated with a value, such as the
+ * rules of a content based router.
+ * <p>
+ * Patterns match as <code>MimeType.match</code> does: the primary
+ * types must be the same, and a subtype of <code>*</code> on either
+ * side matches any subtype.  In addition, the pattern <code>*&#47;*</code>
+ * matches every MIME type.  Any parameters of a pattern are constraints:
+ * the pattern only matches MIME types that have all of those parameters,
+ * with the same values.  Values of the <code>charset</code> parameter
+ * are compared ignoring case, since charset names are not case
+ * sensitive; other values must be exactly the same.
+ * <p>
+ * The patterns are compiled into a two level table, indexed by primary
+ * type and then by subtype, so the cost of a lookup doesn't depend on
+ * the number of patterns.  When several patterns match, the most
+ * specific one is preferred: a pattern with an exact subtype before a
+ * <code>&lt;type&gt;/*</code> pattern before <code>*&#47;*</code>, and
+ * among those, patterns with more parameter constraints first, and then
+ * patterns added earlier first.
+ * <p>
+ * Patterns may be added at any time; lookups are not blocked by adds
+ * and see either the old or the new set of patterns.
+ *
+ * @param <T> the type of the values associated with the patterns
+ * @see jakarta.activation.MimeType#match
+ * @since 2.2
+ */
+public class MimeTypeMatcher<T> {
+
+    /*
+     * A pattern and its value.
+     */
+    private static final class Rule<T> {
+        final T value;
+        final int rank;                // EXACT, SUBTYPE_WILDCARD or ANY
+        final String[] constraints;    // names and values, alternating
+        final int order;
+
+        Rule(T value, int rank, String[] constraints, int order) {
+            this.value = value;
+            this.rank = rank;
+            this.constraints = constraints;
+            this.order = order;
+        }
+
+        /**
+         * Does the MIME type satisfy the parameter constraints?
+         */
+        boolean accepts(MimeType type) {
+            for (int i = 0; i < constraints.length; i += 2) {
+                String value = type.getParameter(constraints[i]);
+                if (value == null)
+                    return false;
+                if (constraints[i].equalsIgnoreCase("charset") ?
+                        !constraints[i + 1].equalsIgnoreCase(value) :
+                        !constraints[i + 1].equals(value))
+                    return false;
+            }
+            return true;
+        }
+    }
+
+    // how specific the type of a pattern is, most specific first
+    private static final int EXACT = 0;               // type/subtype
+    private static final int SUBTYPE_WILDCARD = 1;    // type/*
+    private static final int ANY = 2;                 // */*
+
+    // most specific type first, then most constraints, then in the
+    // order they were added
+    private static final Comparator<Rule<?>> specificity =
+            Comparator.<Rule<?>>comparingInt(r -> r.rank)
+                    .thenComparingInt(r -> -r.constraints.length)
+                    .thenComparingInt(r -> r.order);
+
+    private static final String WILDCARD = "*";
+
+    /*
+     * The compiled patterns: primary type to subtype to the rules for
+     * that pattern, most specific first.  Patterns with a subtype of
+     * "*" are under WILDCARD, and so is the "*" primary type.  The
+     * table is never modified once published, add replaces it.
+     */
+    private volatile Map<String, Map<String, Rule<T>[]>> table =
+            Collections.emptyMap();
+    private int count = 0;
+
+    /**
+     * Create an empty MimeTypeMatcher.
+     */
+    public MimeTypeMatcher() {
+    }
+
+    /**
+     * Add a pattern, given as a MIME type string, with its value.
+     *
+     * @param pattern the MIME type pattern
+     * @param value   the value to return for MIME types that match
+     * @exception MimeTypeParseException    if the pattern can't be parsed
+     */
+    public void add(String pattern, T value) throws MimeTypeParseException {
+        add(MimeType.valueOf(pattern), value);
+    }
+
+    /**
+     * Add a pattern with its value.
+     *
+     * @param pattern the MIME type pattern
+     * @param value   the value to return for MIME types that match
+     */
+    public synchronized void add(MimeType pattern, T value) {
+        String primary = pattern.getPrimaryType();
+        String sub = pattern.getSubType();
+        if (primary.equals(WILDCARD))
+            sub = WILDCARD;    // "*/anything" is treated as "*/*"
+        String[] constraints = pattern.getParameters().pairs().clone();
+        int rank = primary.equals(WILDCARD) ? ANY :
+                sub.equals(WILDCARD) ? SUBTYPE_WILDCARD : EXACT;
+        Rule<T> rule = new Rule<>(value, rank, constraints, count++);
+
+        // copy the table, and the parts of it that change
+        Map<String, Map<String, Rule<T>[]>> nt = new HashMap<>(table);
+        Map<String, Rule<T>[]> subs = nt.get(primary);
+        subs = subs == null ? new HashMap<>() : new HashMap<>(subs);
+        Rule<T>[] rules = subs.get(sub);
+        if (rules == null) {
+            rules = newRules(1);
+        } else {
+            rules = Arrays.copyOf(rules, rules.length + 1);
+        }
+        rules[rules.length - 1] = rule;
+        Arrays.sort(rules, specificity);
+        subs.put(sub, rules);
+        nt.put(primary, subs);
+        table = nt;
+    }
+
+    /**
+     * Return the value of the most specific pattern that matches the
+     * MIME type, or null if none match.
+     *
+     * @param mimeType the MIME type string
+     * @return the value, or null
+     * @exception MimeTypeParseException    if the MIME type can't be parsed
+     */
+    public T match(String mimeType) throws MimeTypeParseException {
+        return match(new MimeType(mimeType));
+    }
+
+    /**
+     * Return the value of the most specific pattern that matches the
+     * MIME type, or null if none match.
+     *
+     * @param type the MIME type
+     * @return the value, or null
+     */
+    public T match(MimeType type) {
+        Map<String, Map<String, Rule<T>[]>> t = table;
+        String primary = type.getPrimaryType();
+        String sub = type.getSubType();
+        Map<String, Rule<T>[]> subs = t.get(primary);
+        if (subs != null) {
+            if (sub.equals(WILDCARD)) {
+                // matches every pattern with this primary type
+                Rule<T> best = null;
+                for (Rule<T>[] rules : subs.values()) {
+                    Rule<T> r = first(rules, type);
+                    if (r != null && (best == null ||
+                            specificity.compare(r, best) < 0))
+                        best = r;
+                }
+                if (best != null)
+                    return best.value;
+            } else {
+                Rule<T> r = first(subs.get(sub), type);
+                if (r == null)
+                    r = first(subs.get(WILDCARD), type);
+                if (r != null)
+                    return r.value;
+            }
+        }
+        Map<String, Rule<T>[]> any = t.get(WILDCARD);
+        if (any != null && !primary.equals(WILDCARD)) {
+            Rule<T> r = first(any.get(WILDCARD), type);
+            if (r != null)
+                return r.value;
+        }
+        return null;
+    }
+
+    /**
+     * Return the values of all the patterns that match the MIME type,
+     * most specific first.
+     *
+     * @param mimeType the MIME type string
+     * @return the values, possibly empty
+     * @exception MimeTypeParseException    if the MIME type can't be parsed
+     */
+    public List<T> matchAll(String mimeType) throws MimeTypeParseException {
+        return matchAll(new MimeType(mimeType));
+    }
+
+    /**
+     * Return the values of all the patterns that match the MIME type,
+     * most specific first.
+     *
+     * @param type the MIME type
+     * @return the values, possibly empty
+     */
+    public List<T> matchAll(MimeType type) {
+        Map<String, Map<String, Rule<T>[]>> t = table;
+        String primary = type.getPrimaryType();
+        String sub = type.getSubType();
+        List<T> result = new ArrayList<>();
+        Map<String, Rule<T>[]> subs = t.get(primary);
+        if (subs != null) {
+            if (sub.equals(WILDCARD)) {
+                List<Rule<T>> all = new ArrayList<>();
+                for (Rule<T>[] rules : subs.values())
+                    collect(rules, type, all);
+                all.sort(specificity);
+                for (Rule<T> r : all)
+                    result.add(r.value);
+            } else {
+                addAll(subs.get(sub), type, result);
+                addAll(subs.get(WILDCARD), type, result);
+            }
+        }
+        Map<String, Rule<T>[]> any = t.get(WILDCARD);
+        if (any != null && !primary.equals(WILDCARD))
+            addAll(any.get(WILDCARD), type, result);
+        return result;
+    }
+
+    /**
+     * Return the first (most specific) rule that accepts the type.
+     */
+    private static <T> Rule<T> first(Rule<T>[] rules, MimeType type) {
+        if (rules != null) {
+            for (Rule<T> r : rules) {
+                if (r.accepts(type))
+                    return r;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Add the rules that accept the type to the list.
+     */
+    private static <T> void collect(Rule<T>[] rules, MimeType type,
+                                    List<Rule<T>> list) {
+        if (rules != null) {
+            for (Rule<T> r : rules) {
+                if (r.accepts(type))
+                    list.add(r);
+            }
+        }
+    }
+
+    /**
+     * Add the values of the rules that accept the type to the list.
+     */
+    private static <T> void addAll(Rule<T>[] rules, MimeType type,
+                                   List<T> list) {
+        if (rules != null) {
+            for (Rule<T> r : rules) {
+                if (r.accepts(type))
+                    list.add(r.value);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Rule<T>[] newRules(int n) {
+        return (Rule<T>[]) new Rule<?>[n];
+    }
+}
@@ -1,5 +1,6 @@
 /*
  * Copyright (c) 1997, 2023 Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Distribution License v. 1.0, which is available at
@@ -10,31 +11,43 @@
 
 package jakarta.activation;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Enumeration;
-import java.util.Hashtable;
 import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.BiConsumer;
 
 /**
  * A parameter list of a MimeType
  * as defined in RFC 2045 and 2046. The Primary type of the
  * object must already be stripped off.
+ * <p>
+ * The parameters are kept in the order in which they were parsed
+ * or added.  A MimeTypeParameterList is not synchronized.
  *
  * @see jakarta.activation.MimeType
  */
 public class MimeTypeParameterList {
-    private Hashtable<String, String> parameters;
-
-    /**
-     * A string that holds all the special chars.
+    /*
+     * The names and values, alternating: name, value, name, value...
+     * Real content types have very few parameters, so a flat array
+     * that is copied on each change is smaller and faster than any
+     * hash table.  Lists without parameters share the empty array.
      */
-    private static final String TSPECIALS = "()<>@,;:/[]?=\\\"";
+    private String[] parameters;
 
+    private static final String[] noParameters = new String[0];
+
+    // set for the parameters of an immutable MimeType
+    private boolean immutable;
 
     /**
      * Default constructor.
      */
     public MimeTypeParameterList() {
-        parameters = new Hashtable<>();
+        parameters = noParameters;
     }
 
     /**
@@ -45,12 +58,51 @@ public class MimeTypeParameterList {
      */
     public MimeTypeParameterList(String parameterList)
             throws MimeTypeParseException {
-        parameters = new Hashtable<>();
+        parameters = noParameters;
 
         //    now parse rawdata
         parse(parameterList);
     }
 
+    /**
+     * Constructs a new MimeTypeParameterList from US-ASCII bytes in a
+     * region of a byte array.  The bytes are parsed directly; only the
+     * names and values are turned into Strings.
+     *
+     * @param data   the bytes containing an RFC 2045, 2046 compliant
+     *               parameter list
+     * @param offset the index of the first byte of the parameter list
+     * @param length the number of bytes in the parameter list
+     * @exception MimeTypeParseException    if the MIME type can't be parsed
+     * @exception IndexOutOfBoundsException if the region is out of bounds
+     * @since 2.2
+     */
+    public MimeTypeParameterList(byte[] data, int offset, int length)
+            throws MimeTypeParseException {
+        parameters = noParameters;
+        parse(new AsciiSequence(data, offset, length), 0);
+    }
+
+    /**
+     * Constructs a new MimeTypeParameterList from US-ASCII bytes in a
+     * region of a ByteBuffer.  The offset is an absolute index; the
+     * buffer's position and limit are not changed.  The bytes are parsed
+     * directly; only the names and values are turned into Strings.
+     *
+     * @param data   the buffer containing an RFC 2045, 2046 compliant
+     *               parameter list
+     * @param offset the index of the first byte of the parameter list
+     * @param length the number of bytes in the parameter list
+     * @exception MimeTypeParseException    if the MIME type can't be parsed
+     * @exception IndexOutOfBoundsException if the region is out of bounds
+     * @since 2.2
+     */
+    public MimeTypeParameterList(ByteBuffer data, int offset, int length)
+            throws MimeTypeParseException {
+        parameters = noParameters;
+        parse(new AsciiSequence(data, offset, length), 0);
+    }
+
     /**
      * A routine for parsing the parameter list out of a String.
      *
@@ -58,20 +110,56 @@ public class MimeTypeParameterList {
      * @exception MimeTypeParseException    if the MIME type can't be parsed
      */
     protected void parse(String parameterList) throws MimeTypeParseException {
+        checkMutable();
         if (parameterList == null)
             return;
 
+        parse(parameterList, 0);
+    }
+
+    /**
+     * Parse the parameter list starting at index <code>start</code>
+     * of the data, scanning it once, front to back.
+     *
+     * @param parameterList the data containing the parameter list
+     * @param start         the index of the parameter list in the data
+     * @exception MimeTypeParseException    if the MIME type can't be parsed
+     */
+    void parse(CharSequence parameterList, int start)
+            throws MimeTypeParseException {
+        scan(parameterList, start, this);
+    }
+
+    /**
+     * Check the syntax of the parameter list starting at index
+     * <code>start</code> of the data, without creating any strings.
+     *
+     * @param parameterList the data containing the parameter list
+     * @param start         the index of the parameter list in the data
+     * @exception MimeTypeParseException    if the MIME type can't be parsed
+     */
+    static void validate(CharSequence parameterList, int start)
+            throws MimeTypeParseException {
+        scan(parameterList, start, null);
+    }
+
+    /**
+     * Scan the parameter list, adding the parameters to the list if
+     * it's not null.
+     */
+    private static void scan(CharSequence parameterList, int start,
+                             MimeTypeParameterList list)
+            throws MimeTypeParseException {
         int length = parameterList.length();
-        if (length == 0)
-            return;
 
         int i;
         char c;
-        for (i = skipWhiteSpace(parameterList, 0);
+        for (i = MimeTypeParser.skipWhiteSpace(parameterList, start);
              i < length && (c = parameterList.charAt(i)) == ';';
-             i = skipWhiteSpace(parameterList, i)) {
+             i = MimeTypeParser.skipWhiteSpace(parameterList, i)) {
             int lastIndex;
-            String name;
+            int nameIndex;
+            int nameEnd;
             String value;
 
             //    eat the ';'
@@ -80,22 +168,19 @@ public class MimeTypeParameterList {
             //    now parse the parameter name
 
             //    skip whitespace
-            i = skipWhiteSpace(parameterList, i);
+            i = MimeTypeParser.skipWhiteSpace(parameterList, i);
 
             // tolerate trailing semicolon, even though it violates the spec
             if (i >= length)
                 return;
 
             //    find the end of the token char run
-            lastIndex = i;
-            while ((i < length) && isTokenChar(parameterList.charAt(i)))
-                i++;
-
-            name = parameterList.substring(lastIndex, i).
-                    toLowerCase(Locale.ENGLISH);
+            nameIndex = i;
+            i = MimeTypeParser.skipToken(parameterList, i);
+            nameEnd = i;
 
             //    now parse the '=' that separates the name from the value
-            i = skipWhiteSpace(parameterList, i);
+            i = MimeTypeParser.skipWhiteSpace(parameterList, i);
 
             if (i >= length || parameterList.charAt(i) != '=')
                 throw new MimeTypeParseException(
@@ -104,11 +189,13 @@ public class MimeTypeParameterList {
 
             //    eat it and parse the parameter value
             i++;
-            i = skipWhiteSpace(parameterList, i);
+            i = MimeTypeParser.skipWhiteSpace(parameterList, i);
 
             if (i >= length)
                 throw new MimeTypeParseException(
-                        "Couldn't find a value for parameter named " + name);
+                        "Couldn't find a value for parameter named " +
+                                MimeTypeParser.toLowerCase(parameterList,
+                                        nameIndex, nameEnd));
 
             //    now find out whether or not we have a quoted value
             c = parameterList.charAt(i);
@@ -120,6 +207,7 @@ public class MimeTypeParameterList {
                             "Encountered unterminated quoted parameter value.");
 
                 lastIndex = i;
+                boolean escaped = false;
 
                 //    find the next unescaped quote
                 while (i < length) {
@@ -130,6 +218,7 @@ public class MimeTypeParameterList {
                         //    found an escape sequence
                         //    so skip this and the
                         //    next character
+                        escaped = true;
                         i++;
                     }
                     i++;
@@ -138,24 +227,33 @@ public class MimeTypeParameterList {
                     throw new MimeTypeParseException(
                             "Encountered unterminated quoted parameter value.");
 
-                value = unquote(parameterList.substring(lastIndex, i));
+                //    only copy the value if there's something to unescape
+                if (list == null)
+                    value = null;
+                else if (escaped)
+                    value = MimeTypeParser.unquote(parameterList, lastIndex, i);
+                else
+                    value = MimeTypeParser.substring(parameterList, lastIndex, i);
                 //    eat the quote
                 i++;
-            } else if (isTokenChar(c)) {
+            } else if (MimeTypeParser.isTokenChar(c)) {
                 //    nope it's an ordinary token so it
                 //    ends with a non-token char
                 lastIndex = i;
-                while (i < length && isTokenChar(parameterList.charAt(i)))
-                    i++;
-                value = parameterList.substring(lastIndex, i);
+                i = MimeTypeParser.skipToken(parameterList, i);
+                value = list == null ? null :
+                        MimeTypeParser.substring(parameterList, lastIndex, i);
             } else {
                 //    it ain't a value
                 throw new MimeTypeParseException(
-                        "Unexpected character encountered at index " + i);
+                        "Unexpected character encountered at index " +
+                                (i - start));
             }
 
-            //    now put the data into the hashtable
-            parameters.put(name, value);
+            //    now put the data into the list
+            if (list != null)
+                list.put(MimeTypeParser.toLowerCase(parameterList,
+                        nameIndex, nameEnd), value);
         }
         if (i < length) {
             throw new MimeTypeParseException(
@@ -169,7 +267,7 @@ public class MimeTypeParameterList {
      * @return the number of parameters
      */
     public int size() {
-        return parameters.size();
+        return parameters.length >> 1;
     }
 
     /**
@@ -178,7 +276,7 @@ public class MimeTypeParameterList {
      * @return true if there are no parameters
      */
     public boolean isEmpty() {
-        return parameters.isEmpty();
+        return parameters.length == 0;
     }
 
     /**
@@ -189,7 +287,9 @@ public class MimeTypeParameterList {
      * @return the parameter's value
      */
     public String get(String name) {
-        return parameters.get(name.trim().toLowerCase(Locale.ENGLISH));
+        String[] params = parameters;
+        int i = indexOf(params, name.trim().toLowerCase(Locale.ENGLISH));
+        return i >= 0 ? params[i + 1] : null;
     }
 
     /**
@@ -200,7 +300,8 @@ public class MimeTypeParameterList {
      * @param value the parameter's value
      */
     public void set(String name, String value) {
-        parameters.put(name.trim().toLowerCase(Locale.ENGLISH), value);
+        checkMutable();
+        put(name.trim().toLowerCase(Locale.ENGLISH), value);
     }
 
     /**
@@ -209,58 +310,180 @@ public class MimeTypeParameterList {
      * @param name the parameter name
      */
     public void remove(String name) {
-        parameters.remove(name.trim().toLowerCase(Locale.ENGLISH));
+        checkMutable();
+        String[] params = parameters;
+        int i = indexOf(params, name.trim().toLowerCase(Locale.ENGLISH));
+        if (i < 0)
+            return;
+        if (params.length == 2) {
+            parameters = noParameters;
+        } else {
+            String[] np = new String[params.length - 2];
+            System.arraycopy(params, 0, np, 0, i);
+            System.arraycopy(params, i + 2, np, i, params.length - i - 2);
+            parameters = np;
+        }
     }
 
     /**
-     * Retrieve an enumeration of all the names in this list.
+     * Retrieve an enumeration of all the names in this list,
+     * in order.
      *
      * @return an enumeration of all parameter names
      */
     public Enumeration<String> getNames() {
-        return parameters.keys();
+        final String[] params = parameters;
+        return new Enumeration<String>() {
+            private int i = 0;
+
+            public boolean hasMoreElements() {
+                return i < params.length;
+            }
+
+            public String nextElement() {
+                if (i >= params.length)
+                    throw new NoSuchElementException();
+                String name = params[i];
+                i += 2;
+                return name;
+            }
+        };
     }
 
     /**
-     * Return a string representation of this object.
+     * Perform the given action for each name-value pair in this list,
+     * in order.
+     *
+     * @param action the action to perform with each name and value
+     * @since 2.2
      */
-    public String toString() {
-        StringBuilder buffer = new StringBuilder();
-        buffer.ensureCapacity(parameters.size() * 16);
-        //    heuristic: 8 characters per field
+    public void forEach(BiConsumer<? super String, ? super String> action) {
+        String[] params = parameters;
+        for (int i = 0; i < params.length; i += 2)
+            action.accept(params[i], params[i + 1]);
+    }
 
-        Enumeration<String> keys = parameters.keys();
-        while (keys.hasMoreElements()) {
-            String key = keys.nextElement();
-            buffer.append("; ");
-            buffer.append(key);
-            buffer.append('=');
-            buffer.append(quote(parameters.get(key)));
+    /**
+     * Determine whether this list contains the same name-value pairs
+     * as another MimeTypeParameterList, in any order.
+     *
+     * @param o the object to compare with
+     * @return true if the object is an equal MimeTypeParameterList
+     * @since 2.2
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof MimeTypeParameterList))
+            return false;
+        String[] params = parameters;
+        String[] other = ((MimeTypeParameterList) o).parameters;
+        if (params.length != other.length)
+            return false;
+        for (int i = 0; i < params.length; i += 2) {
+            int j = indexOf(other, params[i]);
+            if (j < 0 || !params[i + 1].equals(other[j + 1]))
+                return false;
         }
+        return true;
+    }
 
-        return buffer.toString();
+    /**
+     * Return a hash code for this list, consistent with <code>equals</code>.
+     *
+     * @return the hash code
+     * @since 2.2
+     */
+    @Override
+    public int hashCode() {
+        String[] params = parameters;
+        int h = 0;
+        for (int i = 0; i < params.length; i += 2)
+            h += params[i].hashCode() ^ params[i + 1].hashCode();
+        return h;
     }
 
-    //    below here be scary parsing related things
+    /**
+     * Return the names and values, alternating, in order.
+     * The array must not be modified.
+     */
+    String[] pairs() {
+        return parameters;
+    }
 
     /**
-     * Determine whether or not a given character belongs to a legal token.
+     * Associate the value with the (already normalized) name,
+     * replacing the value of an existing parameter in place.
      */
-    private static boolean isTokenChar(char c) {
-        return ((c > 040) && (c < 0177)) && (TSPECIALS.indexOf(c) < 0);
+    private void put(String name, String value) {
+        Objects.requireNonNull(value);
+        String[] params = parameters;
+        int i = indexOf(params, name);
+        if (i >= 0) {
+            params = params.clone();
+            params[i + 1] = value;
+        } else {
+            i = params.length;
+            params = Arrays.copyOf(params, i + 2);
+            params[i] = name;
+            params[i + 1] = value;
+        }
+        parameters = params;
     }
 
     /**
-     * return the index of the first non white space character in
-     * rawdata at or after index i.
+     * Return the index of the named parameter in params, or -1.
      */
-    private static int skipWhiteSpace(String rawdata, int i) {
-        int length = rawdata.length();
-        while ((i < length) && Character.isWhitespace(rawdata.charAt(i)))
-            i++;
-        return i;
+    private static int indexOf(String[] params, String name) {
+        for (int i = 0; i < params.length; i += 2) {
+            if (params[i].equals(name))
+                return i;
+        }
+        return -1;
     }
 
+    /**
+     * Make this list immutable; used for the parameters of the
+     * MimeType instances returned by <code>MimeType.valueOf</code>.
+     */
+    void setImmutable() {
+        immutable = true;
+    }
+
+    /**
+     * Throw an UnsupportedOperationException if this list is immutable.
+     */
+    private void checkMutable() {
+        if (immutable)
+            throw new UnsupportedOperationException(
+                    "MimeTypeParameterList is immutable");
+    }
+
+    /**
+     * Return a string representation of this object.
+     */
+    public String toString() {
+        String[] params = parameters;
+        if (params.length == 0)
+            return "";
+
+        StringBuilder buffer = new StringBuilder();
+        buffer.ensureCapacity(params.length * 8);
+        //    heuristic: 8 characters per field
+
+        for (int i = 0; i < params.length; i += 2) {
+            buffer.append("; ");
+            buffer.append(params[i]);
+            buffer.append('=');
+            buffer.append(quote(params[i + 1]));
+        }
+
+        return buffer.toString();
+    }
+
+    //    below here be scary parsing related things
+
     /**
      * A routine that knows how and when to quote and escape the given value.
      */
@@ -270,7 +493,7 @@ public class MimeTypeParameterList {
         //    check to see if we actually have to quote this thing
         int length = value.length();
         for (int i = 0; (i < length) && !needsQuotes; i++) {
-            needsQuotes = !isTokenChar(value.charAt(i));
+            needsQuotes = !MimeTypeParser.isTokenChar(value.charAt(i));
         }
 
         if (needsQuotes) {
@@ -296,29 +519,4 @@ public class MimeTypeParameterList {
             return value;
         }
     }
-
-    /**
-     * A routine that knows how to strip the quotes and
-     * escape sequences from the given value.
-     */
-    private static String unquote(String value) {
-        int valueLength = value.length();
-        StringBuilder buffer = new StringBuilder();
-        buffer.ensureCapacity(valueLength);
-
-        boolean escaped = false;
-        for (int i = 0; i < valueLength; ++i) {
-            char currentChar = value.charAt(i);
-            if (!escaped && (currentChar != '\\')) {
-                buffer.append(currentChar);
-            } else if (escaped) {
-                buffer.append(currentChar);
-                escaped = false;
-            } else {
-                escaped = true;
-            }
-        }
-
-        return buffer.toString();
-    }
 }
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jakarta.activation;
+
+/**
+ * The scanning routines shared by the MimeType and MimeTypeParameterList
+ * parsers.  Characters are classified with a table lookup, and the parts
+ * of the input are extracted (and lower cased) in one step, without
+ * creating intermediate strings.
+ */
+final class MimeTypeParser {
+
+    /**
+     * A string that holds all the special chars.
+     */
+    private static final String TSPECIALS = "()<>@,;:/[]?=\\\"";
+
+    // character classes, for the US-ASCII characters only
+    private static final byte TOKEN = 0x01;    // legal in a token
+    private static final byte SPACE = 0x02;    // Character.isWhitespace
+    private static final byte BLANK = 0x04;    // removed by String.trim
+    private static final byte UPPER = 0x08;    // upper case letter
+
+    private static final byte[] charClass = new byte[128];
+
+    static {
+        for (char c = 0; c < 128; c++) {
+            byte cc = 0;
+            if ((c > 040) && (c < 0177) && (TSPECIALS.indexOf(c) < 0))
+                cc |= TOKEN;
+            if (Character.isWhitespace(c))
+                cc |= SPACE;
+            if (c <= ' ')
+                cc |= BLANK;
+            if (c >= 'A' && c <= 'Z')
+                cc |= UPPER;
+            charClass[c] = cc;
+        }
+    }
+
+    private MimeTypeParser() {
+        // private constructor, can't create an instance
+    }
+
+    /**
+     * Determine whether or not a given character belongs to a legal token.
+     */
+    static boolean isTokenChar(char c) {
+        return c < 128 && (charClass[c] & TOKEN) != 0;
+    }
+
+    /**
+     * Determine whether or not a given string is a legal token.
+     */
+    static boolean isValidToken(String s) {
+        int len = s.length();
+        return len > 0 && skipToken(s, 0) == len;
+    }
+
+    /**
+     * Return the index of the first non token character in
+     * rawdata at or after index i.
+     */
+    static int skipToken(CharSequence rawdata, int i) {
+        int length = rawdata.length();
+        char c;
+        while ((i < length) && (c = rawdata.charAt(i)) < 128 &&
+                (charClass[c] & TOKEN) != 0)
+            i++;
+        return i;
+    }
+
+    /**
+     * Return the index of the first non white space character in
+     * rawdata at or after index i.  White space is as defined by
+     * <code>Character.isWhitespace</code>.
+     */
+    static int skipWhiteSpace(CharSequence rawdata, int i) {
+        int length = rawdata.length();
+        while (i < length) {
+            char c = rawdata.charAt(i);
+            if (c < 128 ? (charClass[c] & SPACE) == 0 :
+                    !Character.isWhitespace(c))
+                break;
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Return the index of the first character in rawdata at or
+     * after index i that would not be removed by <code>String.trim</code>.
+     */
+    static int skipBlanks(CharSequence rawdata, int i) {
+        int length = rawdata.length();
+        while ((i < length) && rawdata.charAt(i) <= ' ')
+            i++;
+        return i;
+    }
+
+    /**
+     * Return the characters of rawdata from start to end, converted
+     * to lower case.  The characters must all be token characters.
+     * If they're already lower case the input itself, or a plain
+     * substring of it, is returned.
+     */
+    static String toLowerCase(CharSequence rawdata, int start, int end) {
+        int i = start;
+        while (i < end && (charClass[rawdata.charAt(i)] & UPPER) == 0)
+            i++;
+        if (i == end)
+            return substring(rawdata, start, end);
+
+        char[] chars = new char[end - start];
+        for (i = start; i < end; i++) {
+            char c = rawdata.charAt(i);
+            if ((charClass[c] & UPPER) != 0)
+                c += 'a' - 'A';
+            chars[i - start] = c;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Return the characters of rawdata from start to end, reusing
+     * rawdata if that's all of it.
+     */
+    static String substring(CharSequence rawdata, int start, int end) {
+        if (start == 0 && end == rawdata.length())
+            return rawdata.toString();
+        if (rawdata instanceof AsciiSequence)
+            return ((AsciiSequence) rawdata).substring(start, end);
+        return rawdata.subSequence(start, end).toString();
+    }
+
+    /**
+     * Strip the escape sequences from the characters of the quoted
+     * string (without the quotes) from start to end.
+     */
+    static String unquote(CharSequence rawdata, int start, int end) {
+        StringBuilder buffer = new StringBuilder(end - start);
+
+        boolean escaped = false;
+        for (int i = start; i < end; ++i) {
+            char currentChar = rawdata.charAt(i);
+            if (!escaped && (currentChar != '\\')) {
+                buffer.append(currentChar);
+            } else if (escaped) {
+                buffer.append(currentChar);
+                escaped = false;
+            } else {
+                escaped = true;
+            }
+        }
+
+        return buffer.toString();
+    }
+
+    /**
+     * Determine whether a '/' appears in rawdata at or after index i
+     * before any ';', that is, whether the data has a sub type.
+     */
+    static boolean hasSubType(CharSequence rawdata, int i) {
+        int length = rawdata.length();
+        for (; i < length; i++) {
+            char c = rawdata.charAt(i);
+            if (c == '/')
+                return true;
+            if (c == ';')
+                return false;
+        }
+        return false;
+    }
+}
@@ -1,5 +1,6 @@
 /*
  * Copyright (c) 2021, 2025 Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Distribution License v. 1.0, which is available at
@@ -19,6 +20,11 @@ package jakarta.activation;
  * can store MimeTypeEntries in different ways and that storage must be accessible through the
  * {@link jakarta.activation.spi.MimeTypeRegistryProvider} methods.
  * Implementation of the MimeTypeRegistry must contain in-memory storage for MimeTypeEntries.
+ * <p>
+ * Implementations should obtain their entries from
+ * {@link MimeTypeEntry#valueOf MimeTypeEntry.valueOf} and intern the MIME type
+ * strings they keep, so that registries loaded from different resources share
+ * a single copy of each MIME type and entry.
  */
 public interface MimeTypeRegistry {
 
@@ -45,6 +51,24 @@ public interface MimeTypeRegistry {
         return null;
     }
 
+    /**
+     * Get the file extensions registered for the MIME type, in the
+     * order they were added to the registry.
+     * <p>
+     * Implementations are expected to maintain a reverse index from
+     * MIME type to file extensions alongside the forward index so that
+     * this lookup does not have to scan every entry.  The default
+     * implementation returns <code>null</code>, indicating that the
+     * registry does not support reverse lookups.
+     *
+     * @param mime_type the MIME type string
+     * @return the file extensions, or <code>null</code> if none are known
+     * @since 2.2
+     */
+    default String[] getExtensions(String mime_type) {
+        return null;
+    }
+
     /**
      * Appends string of entries to the types registry
      *
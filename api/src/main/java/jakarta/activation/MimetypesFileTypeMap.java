@@ -1,5 +1,6 @@
 /*
  * Copyright (c) 1997, 2025 Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Distribution License v. 1.0, which is available at
@@ -17,9 +18,14 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.ServiceConfigurationError;
+import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class extends FileTypeMap and provides data typing of files
@@ -67,6 +73,20 @@ public class MimetypesFileTypeMap extends FileTypeMap {
     private MimeTypeRegistry[] DB;
     private static final int PROG = 0;    // programmatically added entries
 
+    /*
+     * Reverse index from MIME type to file extensions, filled in
+     * lazily from the databases and cleared when entries are added.
+     * MIME types without extensions are kept too, so looking them up
+     * again doesn't take the lock; the index is emptied when full.
+     */
+    private static final int EXTENSIONS_SIZE = 1024;
+    private final Map<String, String[]> extensions = new ConcurrentHashMap<>();
+
+    private static final String[] noExtensions = new String[0];
+
+    // incremented whenever entries are added
+    private volatile int changes = 0;
+
     private static final String defaultType = "application/octet-stream";
 
     private static final String confDir;
@@ -341,6 +361,8 @@ public class MimetypesFileTypeMap extends FileTypeMap {
                 DB[PROG] = getImplementation().getInMemory();
             }
             DB[PROG].appendToRegistry(mime_types);
+            extensions.clear();
+            changes++;
         } catch (NoSuchElementException | IllegalStateException | ServiceConfigurationError e) {
             if (LogSupport.isLoggable()) {
                 LogSupport.log("Cannot find or load an implementation for MimeTypeRegistryProvider." +
@@ -393,6 +415,72 @@ public class MimetypesFileTypeMap extends FileTypeMap {
         if (file_ext.length() == 0)
             return defaultType;
 
+        String result = lookup(file_ext);
+        return result != null ? result : defaultType;
+    }
+
+    /**
+     * Return the file extensions that map to the specified MIME type.
+     * The MIME type entries are searched as described above under
+     * <i>MIME types file search order</i>; an extension is only returned
+     * if looking it up would actually yield this MIME type, so entries
+     * overridden by an earlier MIME types file are not included.
+     * The extensions are returned in search order, without duplicates.
+     * <p>
+     * This relies on the {@link MimeTypeRegistry#getExtensions} reverse
+     * lookup; registries that don't support it contribute no extensions.
+     *
+     * @param mimeType the MIME type, without parameters
+     * @return the file extensions, or an empty array if none are known
+     *         or the MIME type is null
+     * @since 2.2
+     */
+    public String[] getExtensions(String mimeType) {
+        if (mimeType == null)
+            return noExtensions;
+        String type = mimeType.trim().toLowerCase(Locale.ENGLISH);
+        String[] exts = extensions.get(type);
+        if (exts == null)
+            exts = findExtensions(type);
+        return exts.length == 0 ? exts : exts.clone();
+    }
+
+    /**
+     * Collect the extensions for the (lower case) MIME type from all
+     * the databases, keeping only those not shadowed by earlier entries,
+     * and remember them, even if there are none.  This is synchronized
+     * with addMimeTypes, so the extensions it remembers are never out
+     * of date.
+     */
+    private synchronized String[] findExtensions(String type) {
+        String[] cached = extensions.get(type);
+        if (cached != null)
+            return cached;
+        Set<String> found = new LinkedHashSet<>();
+        for (int i = 0; i < DB.length; i++) {
+            if (DB[i] == null)
+                continue;
+            String[] exts = DB[i].getExtensions(type);
+            if (exts == null)
+                continue;
+            for (String ext : exts) {
+                if (!found.contains(ext) && type.equalsIgnoreCase(lookup(ext)))
+                    found.add(ext);
+            }
+        }
+        String[] exts = found.isEmpty() ? noExtensions :
+                found.toArray(new String[found.size()]);
+        if (extensions.size() >= EXTENSIONS_SIZE)
+            extensions.clear();
+        extensions.put(type, exts);
+        return exts;
+    }
+
+    /**
+     * Return the MIME type for the file extension from the first
+     * database that knows it, or null.
+     */
+    private String lookup(String file_ext) {
         for (int i = 0; i < DB.length; i++) {
             if (DB[i] == null)
                 continue;
@@ -400,7 +488,12 @@ public class MimetypesFileTypeMap extends FileTypeMap {
             if (result != null)
                 return result;
         }
-        return defaultType;
+        return null;
+    }
+
+    @Override
+    int getChanges() {
+        return changes;
     }
 
     private MimeTypeRegistryProvider getImplementation() {
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jakarta.activation;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The RangeDataSource interface is implemented by a DataSource that can
+ * return part of its data, starting at an offset, for instance to answer
+ * an HTTP Range request or to resume a transfer that was interrupted.
+ * <p>
+ * The default implementation skips the bytes before the offset of the
+ * InputStream returned by <code>getInputStream()</code>; a DataSource
+ * that can start reading at an offset, such as FileDataSource, does
+ * better.  DataHandler uses the same default for DataSources that don't
+ * implement this interface.
+ *
+ * @see jakarta.activation.DataHandler#getInputStream(long, long)
+ * @since 2.2
+ */
+public interface RangeDataSource extends DataSource {
+
+    /**
+     * Return an InputStream for <code>length</code> bytes of the data,
+     * starting at <code>offset</code>, or for all the data from
+     * <code>offset</code> on if length is -1.  The InputStream returns
+     * fewer bytes if the data ends first, and none if the data ends
+     * before the offset.
+     *
+     * @param offset the offset of the first byte to read
+     * @param length the number of bytes to read, or -1 for the rest
+     * @return an InputStream
+     * @exception IOException if the data can't be read
+     * @exception IllegalArgumentException if offset is negative, or
+     *                                     length is less than -1
+     */
+    default InputStream getInputStream(long offset, long length)
+            throws IOException {
+        RangeInputStream.checkRange(offset, length);
+        return RangeInputStream.open(getInputStream(), offset, length);
+    }
+}
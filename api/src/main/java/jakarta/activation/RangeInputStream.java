@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jakarta.activation;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+
+/**
+ * An InputStream that reads at most a given number of bytes of
+ * another InputStream.  Closing it closes the other InputStream.
+ */
+final class RangeInputStream extends FilterInputStream {
+    private long remaining;
+
+    /**
+     * Read at most <code>length</code> bytes of the InputStream, or all
+     * of it if length is negative.
+     */
+    RangeInputStream(InputStream in, long length) {
+        super(in);
+        this.remaining = length < 0 ? Long.MAX_VALUE : length;
+    }
+
+    /**
+     * Check the offset and length of a range.
+     */
+    static void checkRange(long offset, long length) {
+        if (offset < 0)
+            throw new IllegalArgumentException("negative offset: " + offset);
+        if (length < -1)
+            throw new IllegalArgumentException("invalid length: " + length);
+    }
+
+    /**
+     * Skip <code>offset</code> bytes of the InputStream, and return an
+     * InputStream for the next <code>length</code> bytes.  The
+     * InputStream is closed if skipping fails.
+     */
+    static InputStream open(InputStream in, long offset, long length)
+            throws IOException {
+        try {
+            while (offset > 0) {
+                long n = in.skip(offset);
+                if (n <= 0) {
+                    // skip may stop short, see if the data has ended
+                    if (in.read() < 0)
+                        break;
+                    n = 1;
+                }
+                offset -= n;
+            }
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+        return new RangeInputStream(in, length);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (remaining <= 0)
+            return -1;
+        int c = in.read();
+        if (c >= 0)
+            remaining--;
+        return c;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (len == 0)
+            return 0;
+        if (remaining <= 0)
+            return -1;
+        int n = in.read(b, off, (int) Math.min(len, remaining));
+        if (n > 0)
+            remaining -= n;
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long k = in.skip(Math.min(n, remaining));
+        if (k > 0)
+            remaining -= k;
+        return k;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(in.available(), remaining);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+}
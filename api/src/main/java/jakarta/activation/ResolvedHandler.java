@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jakarta.activation;
+
+import java.lang.reflect.Constructor;
+
+/**
+ * The DataContentHandler class a MailcapCommandMap found for a MIME
+ * type, and the transfer flavors of its instances, kept so that
+ * DataHandlers for the same type don't have to look them up again.
+ * Each DataHandler gets a new instance of the class.  The class is
+ * null if there is no DataContentHandler for the type.
+ */
+final class ResolvedHandler {
+    static final ResolvedHandler NONE = new ResolvedHandler(null, null);
+
+    private final Constructor<?> constructor;
+    final ActivationDataFlavor[] flavors;    // null if no class
+
+    ResolvedHandler(Constructor<?> constructor,
+                    ActivationDataFlavor[] flavors) {
+        this.constructor = constructor;
+        this.flavors = flavors;
+    }
+
+    /**
+     * Return a new DataContentHandler, or null if there is none or
+     * it can't be created.
+     */
+    DataContentHandler newInstance() {
+        if (constructor == null)
+            return null;
+        try {
+            return (DataContentHandler) constructor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            if (LogSupport.isLoggable())
+                LogSupport.log("Can't create DCH " +
+                        constructor.getDeclaringClass().getName(), e);
+            return null;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 /*
  * Copyright (c) 1997, 2023 Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Distribution License v. 1.0, which is available at
@@ -23,11 +24,14 @@ import java.net.URLConnection;
  * because this class can be used to create new DataHandlers. <i>NOTE: The
  * DataHandler object creates a URLDataSource internally,
  * when it is constructed with a URL.</i>
+ * <p>
+ * The size, last modified time and entity tag of the data come from the
+ * corresponding header fields of the URLConnection, if it has them.
  *
  * @see jakarta.activation.DataSource
  * @see jakarta.activation.DataHandler
  */
-public class URLDataSource implements DataSource {
+public class URLDataSource implements DataSource, DataSourceMetadata {
     private URL url = null;
     private URLConnection url_conn = null;
 
@@ -55,20 +59,68 @@ public class URLDataSource implements DataSource {
      */
     public String getContentType() {
         String type = null;
+        URLConnection conn = getConnection();
 
+        if (conn != null)
+            type = conn.getContentType();
+
+        if (type == null)
+            type = "application/octet-stream";
+
+        return type;
+    }
+
+    /**
+     * Return the URLConnection for the URL, opening it if it isn't
+     * open already, or null if it can't be opened.
+     */
+    private URLConnection getConnection() {
         try {
             if (url_conn == null)
                 url_conn = url.openConnection();
         } catch (IOException e) {
         }
+        return url_conn;
+    }
 
-        if (url_conn != null)
-            type = url_conn.getContentType();
+    /**
+     * Returns the value of the URL content-length header field, or -1
+     * if there is none.
+     *
+     * @return the size of the data, or -1
+     * @since 2.2
+     */
+    @Override
+    public long getSize() {
+        URLConnection conn = getConnection();
+        return conn != null ? conn.getContentLengthLong() : -1;
+    }
 
-        if (type == null)
-            type = "application/octet-stream";
+    /**
+     * Returns the value of the URL last-modified header field, or -1
+     * if there is none.
+     *
+     * @return the last modified time, or -1
+     * @since 2.2
+     */
+    @Override
+    public long getLastModified() {
+        URLConnection conn = getConnection();
+        long lm = conn != null ? conn.getLastModified() : 0;
+        return lm != 0 ? lm : -1;
+    }
 
-        return type;
+    /**
+     * Returns the value of the URL etag header field, or null if there
+     * is none.
+     *
+     * @return the entity tag, or null
+     * @since 2.2
+     */
+    @Override
+    public String getEntityTag() {
+        URLConnection conn = getConnection();
+        return conn != null ? conn.getHeaderField("ETag") : null;
     }
 
     /**